@@ -0,0 +1,151 @@
+package payroll;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+/**
+ * {@link EmployeeModelAssembler} and {@link OrderModelAssembler}, single items and whole collections. The
+ * {@code *MethodOn} variants build every link through {@code linkTo(methodOn(...))} per row, the way the assemblers
+ * did before they kept resolved link templates, and serve as the baseline. Collections are assembled on
+ * {@code parallelism} threads, {@code -p parallelism=1,4} compares sequential and parallel assembly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssemblerBenchmark {
+
+	@Param({ "100000" }) public int rows;
+	@Param({ "1" }) public int parallelism;
+
+	private ParallelAssembly assembly;
+	private EmployeeModelAssembler employeeAssembler;
+	private OrderModelAssembler orderAssembler;
+
+	private Employee employee;
+	private Order order;
+	private List<Employee> employees;
+	private List<Order> orders;
+
+	@Setup
+	public void setUp() {
+
+		BenchmarkRequests.bind();
+
+		this.assembly = new ParallelAssembly(64, parallelism);
+		this.employeeAssembler = new EmployeeModelAssembler(assembly);
+		this.orderAssembler = new OrderModelAssembler(assembly);
+
+		this.employee = Fixtures.employee(1);
+		this.order = Fixtures.order(1);
+		this.order.setStatus(Status.IN_PROGRESS);
+		this.employees = Fixtures.employees(rows);
+		this.orders = Fixtures.orders(rows);
+	}
+
+	@TearDown
+	public void tearDown() {
+
+		BenchmarkRequests.unbind();
+		assembly.destroy();
+	}
+
+	@Benchmark
+	public Object employeeToModel() {
+		return employeeAssembler.toModel(employee);
+	}
+
+	@Benchmark
+	public Object employeeToModelMethodOn() {
+		return employeeMethodOn(employee);
+	}
+
+	@Benchmark
+	public Object orderToModel() {
+		return orderAssembler.toModel(order);
+	}
+
+	@Benchmark
+	public Object orderToModelMethodOn() {
+		return orderMethodOn(order);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 10)
+	public Object employeeCollection() {
+		return employeeAssembler.toCollectionModel(employees);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 10)
+	public Object employeeCollectionMethodOn() {
+
+		List<EntityModel<Employee>> models = new ArrayList<>(employees.size());
+		employees.forEach(employee -> models.add(employeeMethodOn(employee)));
+		return CollectionModel.of(models);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 10)
+	public Object orderCollection() {
+		return orderAssembler.toCollectionModel(orders);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 10)
+	public Object orderCollectionMethodOn() {
+
+		List<EntityModel<Order>> models = new ArrayList<>(orders.size());
+		orders.forEach(order -> models.add(orderMethodOn(order)));
+		return CollectionModel.of(models);
+	}
+
+	private static EntityModel<Employee> employeeMethodOn(Employee employee) {
+
+		return EntityModel.of(employee, //
+				linkTo(methodOn(EmployeeController.class).one(employee.getId(), null)).withSelfRel(),
+				linkTo(methodOn(EmployeeController.class).all(null, null, null, null, null, null)).withRel("employees"));
+	}
+
+	private static EntityModel<Order> orderMethodOn(Order order) {
+
+		EntityModel<Order> orderModel = EntityModel.of(order,
+				linkTo(methodOn(OrderController.class).one(order.getId(), null)).withSelfRel(),
+				linkTo(methodOn(OrderController.class).all(null, null, null, null, null, null)).withRel("orders"));
+
+		if (order.getStatus() == Status.IN_PROGRESS) {
+			orderModel.add(linkTo(methodOn(OrderController.class).cancel(order.getId())).withRel("cancel"));
+			orderModel.add(linkTo(methodOn(OrderController.class).complete(order.getId())).withRel("complete"));
+		}
+
+		return orderModel;
+	}
+}
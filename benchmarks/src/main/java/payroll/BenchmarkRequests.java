@@ -0,0 +1,24 @@
+package payroll;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Binds a request to the benchmark thread, as {@code linkTo(...)} derives the base URI of every link from it.
+ */
+final class BenchmarkRequests {
+
+	private BenchmarkRequests() {}
+
+	static void bind() {
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setServerPort(8080);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	static void unbind() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+}
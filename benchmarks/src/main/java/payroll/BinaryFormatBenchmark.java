@@ -0,0 +1,82 @@
+package payroll;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encoding and decoding an assembled {@code CollectionModel<EntityModel<Order>>} as HAL in JSON, CBOR and Smile, the
+ * formats {@link BinaryFormatsConfiguration} negotiates. The size of each payload is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+	private static final TypeReference<CollectionModel<EntityModel<Order>>> ORDERS = new TypeReference<>() {};
+
+	@Param({ "json", "cbor", "smile" }) public String format;
+	@Param({ "10000" }) public int rows;
+
+	private ObjectMapper mapper;
+	private CollectionModel<EntityModel<Order>> orders;
+	private byte[] payload;
+
+	@Setup
+	public void setUp() throws Exception {
+
+		this.mapper = HalSerializationBenchmark.halObjectMapper(factory(format));
+
+		BenchmarkRequests.bind();
+		try {
+			this.orders = new OrderModelAssembler(ParallelAssembly.sequential()).toCollectionModel(Fixtures.orders(rows));
+		} finally {
+			BenchmarkRequests.unbind();
+		}
+
+		this.payload = mapper.writeValueAsBytes(orders);
+
+		System.out.printf("%n%s payload for %d orders: %d bytes%n", format, rows, payload.length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws Exception {
+		return mapper.writeValueAsBytes(orders);
+	}
+
+	@Benchmark
+	public CollectionModel<EntityModel<Order>> decode() throws Exception {
+		return mapper.readValue(payload, ORDERS);
+	}
+
+	private static JsonFactory factory(String format) {
+
+		return switch (format) {
+			case "json" -> new JsonFactory();
+			case "cbor" -> new CBORFactory();
+			case "smile" -> new SmileFactory();
+			default -> throw new IllegalArgumentException("Unknown format " + format);
+		};
+	}
+}
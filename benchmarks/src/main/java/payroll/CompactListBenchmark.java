@@ -0,0 +1,99 @@
+package payroll;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Full windows of {@code /orders} as regular HAL and in the compact representation ({@code ?compact=true}): the time
+ * to render one through {@link MockMvc}, and the time to gzip the body as the server's response compression would.
+ * The size of each body, plain and gzipped, is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompactListBenchmark {
+
+	@Param({ "full", "compact" }) public String representation;
+	@Param({ "10000" }) public int rows;
+
+	private ConfigurableApplicationContext context;
+	private MockMvc mvc;
+	private RequestBuilder request;
+	private byte[] body;
+
+	@Setup
+	public void setUp() throws Exception {
+
+		this.context = new SpringApplicationBuilder(PayrollApplication.class) //
+				.properties("server.port=0", "logging.level.root=warn", "payroll.seed.blocking=true",
+						"payroll.throttling.enabled=false") //
+				.run();
+		this.mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+		EndToEndBenchmark.seed(context.getBean(JdbcTemplate.class), rows);
+
+		this.request = get("/orders") //
+				.param("after", Integer.toString(rows / 2)) //
+				.param("size", Integer.toString(KeysetWindow.MAX_SIZE)) //
+				.param("compact", Boolean.toString(representation.equals("compact"))) //
+				.accept(MediaTypes.HAL_JSON);
+		this.body = EndToEndBenchmark.perform(mvc, request).getResponse().getContentAsByteArray();
+
+		System.out.printf("%n%s window of %d orders: %d bytes, %d gzipped%n", representation, KeysetWindow.MAX_SIZE,
+				body.length, gzip(body).length);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Object render() throws Exception {
+		return EndToEndBenchmark.perform(mvc, request);
+	}
+
+	@Benchmark
+	public byte[] gzip() throws IOException {
+		return gzip(body);
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(body);
+		}
+
+		return compressed.toByteArray();
+	}
+}
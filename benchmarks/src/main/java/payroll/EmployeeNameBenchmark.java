@@ -0,0 +1,42 @@
+package payroll;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The derived {@code name} property of {@link Employee}, read for every employee Jackson renders and written on every
+ * replace.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeNameBenchmark {
+
+	private final Employee employee = Fixtures.employee(1);
+
+	public String name = "Samwise Gamgee";
+
+	@Benchmark
+	public String getName() {
+		return employee.getName();
+	}
+
+	@Benchmark
+	public Object setName() {
+
+		employee.setName(name);
+		return employee;
+	}
+}
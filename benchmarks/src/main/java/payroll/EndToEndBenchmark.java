@@ -0,0 +1,103 @@
+package payroll;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Requests against the full application through {@link MockMvc}, with the tables seeded to {@code rows} rows. List
+ * requests start halfway through the table to show that a window costs the same at any depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class EndToEndBenchmark {
+
+	@Param({ "10", "10000", "1000000" }) public int rows;
+
+	private ConfigurableApplicationContext context;
+	private MockMvc mvc;
+	private long middle;
+
+	@Setup
+	public void setUp() {
+
+		this.context = new SpringApplicationBuilder(PayrollApplication.class) //
+				.properties("server.port=0", "logging.level.root=warn", "payroll.seed.blocking=true") //
+				.run();
+		this.mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+		this.middle = rows / 2;
+
+		seed(context.getBean(JdbcTemplate.class), rows);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Object employees() throws Exception {
+		return perform(mvc, get("/employees").param("after", Long.toString(middle)).accept(MediaTypes.HAL_JSON));
+	}
+
+	@Benchmark
+	public Object orders() throws Exception {
+		return perform(mvc, get("/orders").param("after", Long.toString(middle)).accept(MediaTypes.HAL_JSON));
+	}
+
+	@Benchmark
+	public Object order() throws Exception {
+		return mvc.perform(get("/orders/{id}", middle).accept(MediaTypes.HAL_JSON)).andReturn();
+	}
+
+	/**
+	 * Performs the request and, for the collection handlers that answer on a thread of their own, the dispatch of
+	 * their result.
+	 */
+	static MvcResult perform(MockMvc mvc, RequestBuilder request) throws Exception {
+
+		MvcResult result = mvc.perform(request).andReturn();
+		return result.getRequest().isAsyncStarted() ? mvc.perform(asyncDispatch(result)).andReturn() : result;
+	}
+
+	/**
+	 * Tops the preloaded rows up to {@code rows} with a single set based insert per table.
+	 */
+	static void seed(JdbcTemplate jdbc, int rows) {
+
+		jdbc.update("INSERT INTO employee (id, first_name, last_name, role, version) "
+				+ "SELECT x, 'First' || x, 'Last' || x, 'burglar', 0 FROM system_range(3, ?)", rows);
+		jdbc.update("INSERT INTO customer_order (id, description, status, version) "
+				+ "SELECT x, 'Order ' || x, "
+				+ "CASE MOD(x, 3) WHEN 0 THEN 'IN_PROGRESS' WHEN 1 THEN 'COMPLETED' ELSE 'CANCELLED' END, 0 "
+				+ "FROM system_range(3, ?)", rows);
+	}
+}
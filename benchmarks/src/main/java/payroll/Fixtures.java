@@ -0,0 +1,46 @@
+package payroll;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached entities for benchmarks that don't need a database.
+ */
+final class Fixtures {
+
+	private static final Status[] STATUSES = Status.values();
+
+	private Fixtures() {}
+
+	static Employee employee(long id) {
+
+		Employee employee = new Employee("Bilbo" + id, "Baggins", "burglar");
+		employee.setId(id);
+		return employee;
+	}
+
+	static Order order(long id) {
+
+		Order order = new Order("Order " + id, STATUSES[(int) (id % STATUSES.length)]);
+		order.setId(id);
+		return order;
+	}
+
+	static List<Employee> employees(int count) {
+
+		List<Employee> employees = new ArrayList<>(count);
+		for (long id = 1; id <= count; id++) {
+			employees.add(employee(id));
+		}
+		return employees;
+	}
+
+	static List<Order> orders(int count) {
+
+		List<Order> orders = new ArrayList<>(count);
+		for (long id = 1; id <= count; id++) {
+			orders.add(order(id));
+		}
+		return orders;
+	}
+}
@@ -0,0 +1,73 @@
+package payroll;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * HAL rendering of an assembled {@code CollectionModel<EntityModel<Order>>}, configured like the application's
+ * {@code application/hal+json} message converter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HalSerializationBenchmark {
+
+	@Param({ "10", "10000" }) public int rows;
+
+	private ObjectMapper mapper;
+	private CollectionModel<EntityModel<Order>> orders;
+
+	@Setup
+	public void setUp() {
+
+		this.mapper = halObjectMapper();
+
+		BenchmarkRequests.bind();
+		try {
+			this.orders = new OrderModelAssembler(ParallelAssembly.sequential()).toCollectionModel(Fixtures.orders(rows));
+		} finally {
+			BenchmarkRequests.unbind();
+		}
+	}
+
+	@Benchmark
+	public byte[] orders() throws Exception {
+		return mapper.writeValueAsBytes(orders);
+	}
+
+	static ObjectMapper halObjectMapper() {
+		return halObjectMapper(new JsonFactory());
+	}
+
+	static ObjectMapper halObjectMapper(JsonFactory factory) {
+
+		ObjectMapper mapper = new ObjectMapper(factory);
+		mapper.registerModule(new Jackson2HalModule());
+		mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new DefaultLinkRelationProvider(),
+				CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+		return mapper;
+	}
+}
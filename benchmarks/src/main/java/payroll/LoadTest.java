@@ -0,0 +1,139 @@
+package payroll;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Closed-loop HTTP load against {@code /orders/{id}} with latency injected into every database statement, to compare
+ * request handling on Tomcat's platform thread pool with the {@code virtual-threads} profile.
+ * <p>
+ * Arguments (all optional): {@code mode=platform|virtual clients=400 seconds=30 latency=50}. Throughput and latency
+ * percentiles are printed and written to {@code target/load-test-<mode>.json}. The virtual mode needs a Java 21
+ * runtime, on older ones it silently falls back to platform threads.
+ */
+public final class LoadTest {
+
+	private LoadTest() {}
+
+	public static void main(String... args) throws Exception {
+
+		String mode = argument(args, "mode", "platform");
+		int clients = Integer.parseInt(argument(args, "clients", "400"));
+		Duration duration = Duration.ofSeconds(Long.parseLong(argument(args, "seconds", "30")));
+		String latency = argument(args, "latency", "50");
+
+		System.setProperty(SlowStatementInspector.LATENCY_PROPERTY, latency);
+
+		SpringApplicationBuilder application = new SpringApplicationBuilder(PayrollApplication.class) //
+				.properties("server.port=0", "logging.level.root=warn", "payroll.seed.blocking=true",
+						"payroll.throttling.enabled=false",
+						"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+								+ SlowStatementInspector.class.getName());
+
+		if (mode.equals("virtual")) {
+			application.profiles("virtual-threads");
+		}
+
+		try (ConfigurableApplicationContext context = application.run()) {
+
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			Result result = run(URI.create("http://localhost:" + port + "/orders/2"), clients, duration);
+			String report = result.toJson(mode, clients, latency);
+
+			System.out.println(report);
+			Files.createDirectories(Path.of("target"));
+			Files.writeString(Path.of("target", "load-test-" + mode + ".json"), report);
+		}
+	}
+
+	private static Result run(URI uri, int clients, Duration duration) {
+
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		AtomicLong errors = new AtomicLong();
+		long deadline = System.nanoTime() + duration.toNanos();
+
+		CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+		for (int i = 0; i < clients; i++) {
+			loops[i] = loop(client, request, deadline, latencies, errors);
+		}
+		CompletableFuture.allOf(loops).join();
+
+		long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		return new Result(sorted, errors.get(), duration);
+	}
+
+	// Each client sends its next request as soon as the previous one completes
+
+	private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline,
+			ConcurrentLinkedQueue<Long> latencies, AtomicLong errors) {
+
+		if (System.nanoTime() >= deadline) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		long start = System.nanoTime();
+
+		return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()) //
+				.handle((response, failure) -> {
+
+					if (failure != null || response.statusCode() != 200) {
+						errors.incrementAndGet();
+					} else {
+						latencies.add(System.nanoTime() - start);
+					}
+					return null;
+				}) //
+				.thenCompose(ignored -> loop(client, request, deadline, latencies, errors));
+	}
+
+	private static String argument(String[] args, String name, String defaultValue) {
+
+		return Arrays.stream(args) //
+				.filter(arg -> arg.startsWith(name + "=")) //
+				.map(arg -> arg.substring(name.length() + 1)) //
+				.findFirst() //
+				.orElse(defaultValue);
+	}
+
+	private record Result(long[] latencies, long errors, Duration duration) {
+
+		double throughput() {
+			return latencies.length / (double) duration.toSeconds();
+		}
+
+		double percentile(double percentile) {
+
+			if (latencies.length == 0) {
+				return 0;
+			}
+
+			int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+			return latencies[Math.max(0, index)] / 1_000_000.0;
+		}
+
+		String toJson(String mode, int clients, String latency) {
+
+			return String.format(
+					"{\"mode\":\"%s\",\"clients\":%d,\"dbLatencyMs\":%s,\"requests\":%d,\"errors\":%d,"
+							+ "\"throughput\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+					mode, clients, latency, latencies.length, errors, throughput(), percentile(50), percentile(99),
+					percentile(100));
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package payroll;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Simulates a slow database by holding every statement Hibernate prepares for {@code payroll.db.latency} milliseconds,
+ * while the calling thread holds its connection, as it would while waiting on a real database.
+ */
+public class SlowStatementInspector implements StatementInspector {
+
+	static final String LATENCY_PROPERTY = "payroll.db.latency";
+
+	private final long latency = Long.getLong(LATENCY_PROPERTY, 0);
+
+	@Override
+	public String inspect(String sql) {
+
+		if (latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		return sql;
+	}
+}
@@ -0,0 +1,267 @@
+package payroll;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Cold starts of the {@code links} application as a separate process. Each run records:
+ * <ul>
+ * <li>the time from launch to the first successful {@code GET /employees/1}</li>
+ * <li>the resident set size at that point, read from {@code /proc} (Linux only)</li>
+ * <li>the time from launch to steady state, the end of the first window of {@value #WINDOW} sequential
+ * {@code GET /orders} whose p99 is within 20% of the p99 at the end of the run</li>
+ * </ul>
+ * Arguments (all optional): {@code mode=jvm|aot|native|cds|crac runs=5 requests=5000 warmup=500}.
+ * <ul>
+ * <li>{@code jvm} runs the executable jar as is</li>
+ * <li>{@code aot} runs it with {@code -Dspring.aot.enabled=true}, and needs a jar built with {@code -Pnative}</li>
+ * <li>{@code native} runs the image built by {@code -Pnative native:compile}</li>
+ * <li>{@code cds} extracts the jar, writes an AppCDS archive in a training run that exits after {@code warmup}
+ * rounds of {@link WarmUp}, then runs the extracted jar on that archive</li>
+ * <li>{@code crac} takes a checkpoint after {@code warmup} rounds, then restores from it, and needs a JVM with
+ * CRaC</li>
+ * </ul>
+ * Medians are printed and written to {@code target/startup-<mode>.json}.
+ */
+public final class StartupTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(120);
+	private static final int WINDOW = 250;
+	private static final List<String> ARGUMENTS = List.of("--payroll.seed.blocking=true",
+			"--payroll.throttling.enabled=false", "--logging.level.root=warn");
+
+	private StartupTest() {}
+
+	public static void main(String... args) throws Exception {
+
+		String mode = argument(args, "mode", "jvm");
+		int runs = Integer.parseInt(argument(args, "runs", "5"));
+		int requests = Integer.parseInt(argument(args, "requests", "5000"));
+		int warmUp = Integer.parseInt(argument(args, "warmup", "500"));
+		Path jar = Path.of(argument(args, "jar", "../links/target/links-0.0.1-SNAPSHOT-exec.jar"));
+		Path image = Path.of(argument(args, "image", "../links/target/links"));
+
+		Launcher launcher = launcher(mode, jar, image, warmUp);
+
+		long[] firstRequests = new long[runs];
+		long[] steadyStates = new long[runs];
+		long[] rss = new long[runs];
+
+		for (int i = 0; i < runs; i++) {
+
+			int port = launcher.port() > 0 ? launcher.port() : freePort();
+			long start = System.nanoTime();
+			Process process = start(launcher.command().apply(port));
+
+			try {
+				HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+				awaitFirstResponse(client, URI.create("http://localhost:" + port + "/employees/1"), process);
+				firstRequests[i] = System.nanoTime() - start;
+				rss[i] = residentSetKb(process.pid());
+				steadyStates[i] = awaitSteadyState(client, URI.create("http://localhost:" + port + "/orders"), requests)
+						- start;
+			} finally {
+				process.destroy();
+				process.waitFor();
+			}
+		}
+
+		String report = String.format(
+				"{\"mode\":\"%s\",\"runs\":%d,\"firstRequestMs\":%.1f,\"steadyStateMs\":%.1f,\"rssMb\":%.1f}", mode,
+				runs, median(firstRequests) / 1_000_000.0, median(steadyStates) / 1_000_000.0, median(rss) / 1024.0);
+
+		System.out.println(report);
+		Files.createDirectories(Path.of("target"));
+		Files.writeString(Path.of("target", "startup-" + mode + ".json"), report);
+	}
+
+	private static Launcher launcher(String mode, Path jar, Path image, int warmUp) throws Exception {
+
+		return switch (mode) {
+			case "jvm" -> new Launcher(port -> withArguments(port, "java", "-jar", jar.toString()), 0);
+			case "aot" -> new Launcher(
+					port -> withArguments(port, "java", "-Dspring.aot.enabled=true", "-jar", jar.toString()), 0);
+			case "native" -> new Launcher(port -> withArguments(port, image.toString()), 0);
+			case "cds" -> cds(jar, warmUp);
+			case "crac" -> crac(jar, warmUp);
+			default -> throw new IllegalArgumentException("Unknown mode " + mode);
+		};
+	}
+
+	// The archive only covers classes loaded from plain jars on the class path, not from jars nested in the boot jar
+
+	private static Launcher cds(Path jar, int warmUp) throws Exception {
+
+		Path directory = Path.of("target", "cds").toAbsolutePath();
+		Path archive = directory.resolve("links.jsa");
+		Path extracted = directory.resolve(jar.getFileName());
+
+		run(List.of("java", "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force", "--destination",
+				directory.toString()));
+
+		List<String> training = withArguments(0, "java", "-XX:ArchiveClassesAtExit=" + archive, "-jar",
+				extracted.toString());
+		training.addAll(List.of("--payroll.warm-up.iterations=" + warmUp, "--payroll.warm-up.then=exit"));
+		run(training);
+
+		return new Launcher(
+				port -> withArguments(port, "java", "-XX:SharedArchiveFile=" + archive, "-jar", extracted.toString()),
+				0);
+	}
+
+	// A restored process keeps the port it was listening on at the checkpoint, every run uses that one
+
+	private static Launcher crac(Path jar, int warmUp) throws Exception {
+
+		Path directory = Path.of("target", "crac").toAbsolutePath();
+		int port = freePort();
+
+		List<String> checkpoint = withArguments(port, "java", "-XX:CRaCCheckpointTo=" + directory, "-jar",
+				jar.toString());
+		checkpoint.addAll(List.of("--payroll.warm-up.iterations=" + warmUp, "--payroll.warm-up.then=checkpoint"));
+		run(checkpoint);
+
+		return new Launcher(ignored -> List.of("java", "-XX:CRaCRestoreFrom=" + directory), port);
+	}
+
+	private static List<String> withArguments(int port, String... command) {
+
+		List<String> arguments = new ArrayList<>(List.of(command));
+		arguments.add("--server.port=" + port);
+		arguments.addAll(ARGUMENTS);
+		return arguments;
+	}
+
+	private static Process start(List<String> command) throws IOException {
+
+		return new ProcessBuilder(command) //
+				.redirectErrorStream(true) //
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD) //
+				.start();
+	}
+
+	private static void run(List<String> command) throws Exception {
+
+		Process process = new ProcessBuilder(command).inheritIO().start();
+
+		// a JVM taking a CRaC checkpoint is killed once the image is written
+		int exitValue = process.waitFor();
+		if (exitValue != 0 && exitValue != 137) {
+			throw new IllegalStateException(String.join(" ", command) + " exited with " + exitValue);
+		}
+	}
+
+	// Polls as fast as connection attempts allow, so the measurement is bounded by the application, not the interval
+
+	private static void awaitFirstResponse(HttpClient client, URI uri, Process process) throws Exception {
+
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).build();
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+
+		while (System.nanoTime() < deadline) {
+
+			if (!process.isAlive()) {
+				throw new IllegalStateException("Application exited with " + process.exitValue());
+			}
+
+			try {
+				if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return;
+				}
+			} catch (IOException e) {
+				// not listening yet
+			}
+
+			Thread.sleep(5);
+		}
+
+		throw new IllegalStateException("No response from " + uri + " within " + TIMEOUT);
+	}
+
+	/**
+	 * Sends {@code requests} sequential requests and returns when, in {@link System#nanoTime()}, the first window that
+	 * performed like the last one ended.
+	 */
+	private static long awaitSteadyState(HttpClient client, URI uri, int requests) throws Exception {
+
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+		int windows = Math.max(1, requests / WINDOW);
+		long[] p99s = new long[windows];
+		long[] ends = new long[windows];
+
+		for (int window = 0; window < windows; window++) {
+
+			long[] latencies = new long[WINDOW];
+
+			for (int i = 0; i < WINDOW; i++) {
+
+				long start = System.nanoTime();
+				client.send(request, HttpResponse.BodyHandlers.discarding());
+				latencies[i] = System.nanoTime() - start;
+			}
+
+			Arrays.sort(latencies);
+			p99s[window] = latencies[(int) Math.ceil(0.99 * WINDOW) - 1];
+			ends[window] = System.nanoTime();
+		}
+
+		long steady = p99s[windows - 1] * 12 / 10;
+
+		for (int window = 0; window < windows; window++) {
+			if (p99s[window] <= steady) {
+				return ends[window];
+			}
+		}
+
+		return ends[windows - 1];
+	}
+
+	private static long residentSetKb(long pid) throws IOException {
+
+		return Files.readAllLines(Path.of("/proc", Long.toString(pid), "status")).stream() //
+				.filter(line -> line.startsWith("VmRSS:")) //
+				.map(line -> line.replaceAll("\\D", "")) //
+				.mapToLong(Long::parseLong) //
+				.findFirst() //
+				.orElse(0);
+	}
+
+	private static long median(long[] values) {
+
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	private static int freePort() throws IOException {
+
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static String argument(String[] args, String name, String defaultValue) {
+
+		return Arrays.stream(args) //
+				.filter(arg -> arg.startsWith(name + "=")) //
+				.map(arg -> arg.substring(name.length() + 1)) //
+				.findFirst() //
+				.orElse(defaultValue);
+	}
+
+	/**
+	 * How to start the application on a given port, or on the fixed {@code port} it was checkpointed with, if not 0.
+	 */
+	private record Launcher(IntFunction<List<String>> command, int port) {}
+}
@@ -0,0 +1,107 @@
+package payroll;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * 64 threads racing {@code cancel} and {@code complete} on the same orders, a fresh {@code IN_PROGRESS} order for every
+ * 64 attempts. Doubles as a stress check: an iteration fails if more transitions succeeded than there were orders to
+ * transition, or if any succeeded transition was lost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class TransitionContentionBenchmark {
+
+	private static final int ATTEMPTS_PER_ORDER = 64;
+	private static final int ORDERS = 100_000;
+
+	private ConfigurableApplicationContext context;
+	private JdbcTemplate jdbc;
+	private MockMvc mvc;
+
+	private final AtomicLong attempts = new AtomicLong();
+	private final AtomicLong transitions = new AtomicLong();
+
+	@Setup
+	public void setUp() {
+
+		this.context = new SpringApplicationBuilder(PayrollApplication.class) //
+				.properties("server.port=0", "logging.level.root=warn", "payroll.seed.blocking=true") //
+				.run();
+		this.mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+		this.jdbc = context.getBean(JdbcTemplate.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void resetOrders() {
+
+		jdbc.update("DELETE FROM customer_order");
+		jdbc.update("INSERT INTO customer_order (id, description, status, version) "
+				+ "SELECT x, 'Order ' || x, ?, 0 FROM system_range(1, ?)", Status.IN_PROGRESS.name(), ORDERS);
+
+		attempts.set(0);
+		transitions.set(0);
+	}
+
+	@TearDown(Level.Iteration)
+	public void verify() {
+
+		long contended = Math.min(ORDERS, (attempts.get() + ATTEMPTS_PER_ORDER - 1) / ATTEMPTS_PER_ORDER);
+		Long transitioned = jdbc.queryForObject("SELECT COUNT(*) FROM customer_order WHERE status <> ?", Long.class,
+				Status.IN_PROGRESS.name());
+
+		if (transitions.get() != transitioned || transitioned > contended) {
+			throw new IllegalStateException(transitions.get() + " successful transitions for " + transitioned
+					+ " transitioned orders out of " + contended + " contended ones");
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int transition() throws Exception {
+
+		long attempt = attempts.getAndIncrement();
+		long id = attempt / ATTEMPTS_PER_ORDER % ORDERS + 1;
+
+		int status = (attempt % 2 == 0 //
+				? mvc.perform(delete("/orders/{id}/cancel", id)) //
+				: mvc.perform(put("/orders/{id}/complete", id))).andReturn().getResponse().getStatus();
+
+		if (status == 200) {
+			transitions.incrementAndGet();
+		}
+
+		return status;
+	}
+}
@@ -0,0 +1,88 @@
+package payroll;
+
+/**
+ * Caps the number of requests in flight at a limit that follows the application's latency, after the gradient
+ * algorithm of Netflix' concurrency-limits. Latency that rises above its long-term average means requests queue up
+ * somewhere, typically for database connections, and shrinks the limit. Steady latency lets the limit grow by a small
+ * queue allowance. Excess requests can so be rejected before the connection pool runs dry, rather than timing out on
+ * it.
+ */
+final class AdaptiveConcurrencyLimit {
+
+	private static final double TOLERANCE = 1.5;
+	private static final double SMOOTHING = 0.2;
+	private static final int LONG_WINDOW = 600;
+	private static final int SHORT_WINDOW = 10;
+
+	private final int minLimit;
+	private final int maxLimit;
+
+	private double limit;
+	private int inFlight;
+	private double longRtt;
+	private double shortRtt;
+
+	AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * @return the number of requests in flight when this one started, or {@literal -1} if it must be rejected
+	 */
+	synchronized int tryAcquire() {
+
+		if (inFlight >= (int) limit) {
+			return -1;
+		}
+
+		return inFlight++;
+	}
+
+	/**
+	 * @param rtt how long the request took, in nanoseconds
+	 * @param inFlightAtStart as returned by {@link #tryAcquire()}
+	 */
+	synchronized void release(long rtt, int inFlightAtStart) {
+
+		inFlight--;
+
+		longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / LONG_WINDOW;
+		shortRtt = shortRtt == 0 ? rtt : shortRtt + (rtt - shortRtt) / SHORT_WINDOW;
+
+		// Recover quickly from a long stretch of slow requests once latency is back to normal
+
+		if (longRtt / shortRtt > 2) {
+			longRtt *= 0.95;
+		}
+
+		// A mostly idle limit says nothing about what the application can take
+
+		if (inFlightAtStart < limit / 2) {
+			return;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+		double newLimit = limit * gradient + Math.sqrt(limit);
+
+		limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+	}
+
+	/**
+	 * Release a request without taking its latency into account, for streams that stay open for as long as the client
+	 * reads them.
+	 */
+	synchronized void release() {
+		inFlight--;
+	}
+
+	synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	synchronized int getInFlight() {
+		return inFlight;
+	}
+}
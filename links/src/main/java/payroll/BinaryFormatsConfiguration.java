@@ -0,0 +1,98 @@
+package payroll;
+
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.mediatype.hal.HalMediaTypeConfiguration;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR and Smile next to JSON, for service-to-service calls that would rather not pay for the bytes and the parsing of
+ * text. Request bodies and plain values go through Spring's CBOR and Smile converters, which are registered as soon as
+ * the Jackson data formats are on the class path. Representation models are rendered as HAL in either format, for
+ * {@code application/hal+cbor} and {@code application/hal+smile} as well as for the plain media types, just like HAL
+ * is what {@code application/json} gets.
+ * <p>
+ * Every response says it varies by {@code Accept}, so shared caches keep the formats of a resource apart.
+ */
+@Configuration
+class BinaryFormatsConfiguration implements WebMvcConfigurer {
+
+	static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+	static final MediaType HAL_CBOR = new MediaType("application", "hal+cbor");
+	static final MediaType HAL_SMILE = new MediaType("application", "hal+smile");
+
+	private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+	private final HalMediaTypeConfiguration hal;
+
+	BinaryFormatsConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> builders, HalMediaTypeConfiguration hal) {
+
+		this.builders = builders;
+		this.hal = hal;
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+
+		addHalConverter(converters, MappingJackson2CborHttpMessageConverter.class, new CBORFactory(), HAL_CBOR,
+				MediaType.APPLICATION_CBOR);
+		addHalConverter(converters, MappingJackson2SmileHttpMessageConverter.class, new SmileFactory(), HAL_SMILE,
+				APPLICATION_SMILE);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+
+		registry.addInterceptor(new HandlerInterceptor() {
+
+			// Async requests pass through twice
+
+			@Override
+			public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+				if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+					response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+				}
+
+				return true;
+			}
+		});
+	}
+
+	// Right before the plain converter of the same format, so it wins for models but never comes ahead of HAL JSON
+
+	private void addHalConverter(List<HttpMessageConverter<?>> converters, Class<?> plainConverter,
+			JsonFactory factory, MediaType... mediaTypes) {
+
+		ObjectMapper mapper = hal.configureObjectMapper(builders.getObject().factory(factory).build());
+
+		int index = converters.stream() //
+				.filter(plainConverter::isInstance) //
+				.findFirst() //
+				.map(converters::indexOf) //
+				.orElse(converters.size());
+
+		converters.add(index,
+				new TypeConstrainedMappingJackson2HttpMessageConverter(RepresentationModel.class, List.of(mediaTypes),
+						mapper));
+	}
+}
@@ -0,0 +1,114 @@
+package payroll;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Streams rows from CSV (with a header line naming the properties) or newline delimited JSON files into the database.
+ * Rows are read one at a time and inserted through a stateless session in JDBC batches, one transaction per chunk, so
+ * neither the file nor a persistence context is ever held in memory. Ids come from the entities' pooled sequences,
+ * just like rows saved through the repositories.
+ */
+@Component
+class DatabaseSeeder {
+
+	private static final Logger log = LoggerFactory.getLogger(DatabaseSeeder.class);
+
+	private static final int JDBC_BATCH_SIZE = 500;
+
+	private final SessionFactory sessionFactory;
+	private final ObjectMapper objectMapper;
+	private final CsvMapper csvMapper = new CsvMapper();
+	private final int chunkSize;
+
+	DatabaseSeeder(EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+			@Value("${payroll.seed.chunk-size}") int chunkSize) {
+
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.objectMapper = objectMapper;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param file {@code .csv} file, anything else is read as newline delimited JSON
+	 * @return the number of rows inserted
+	 */
+	<T> long seed(Resource file, Class<T> type) throws IOException {
+
+		long start = System.nanoTime();
+		long rows = 0;
+
+		try (InputStream in = file.getInputStream(); MappingIterator<T> iterator = reader(file, type, in)) {
+
+			List<T> chunk = new ArrayList<>(chunkSize);
+
+			while (iterator.hasNext()) {
+
+				chunk.add(iterator.next());
+
+				if (chunk.size() == chunkSize) {
+
+					rows += insert(chunk);
+					log.info("Seeded {} {} rows from {} so far", rows, type.getSimpleName(), file.getFilename());
+				}
+			}
+
+			rows += insert(chunk);
+		}
+
+		long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		log.info("Seeded {} {} rows from {} in {} ms ({} rows/s)", rows, type.getSimpleName(), file.getFilename(), millis,
+				rows * 1000 / millis);
+
+		return rows;
+	}
+
+	private <T> MappingIterator<T> reader(Resource file, Class<T> type, InputStream in) throws IOException {
+
+		if (file.getFilename() != null && file.getFilename().endsWith(".csv")) {
+			return csvMapper.readerFor(type).with(CsvSchema.emptySchema().withHeader()).readValues(in);
+		}
+
+		return objectMapper.readerFor(type).readValues(in);
+	}
+
+	private int insert(List<?> chunk) {
+
+		int size = chunk.size();
+
+		if (size == 0) {
+			return 0;
+		}
+
+		try (StatelessSession session = sessionFactory.openStatelessSession()) {
+
+			session.setJdbcBatchSize(JDBC_BATCH_SIZE);
+
+			Transaction transaction = session.beginTransaction();
+			chunk.forEach(session::insert);
+			transaction.commit();
+		}
+
+		chunk.clear();
+		return size;
+	}
+}
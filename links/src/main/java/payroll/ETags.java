@@ -0,0 +1,44 @@
+package payroll;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Strong entity tags derived from the {@code @Version} column, so that a conditional GET can be answered before any
+ * representation is assembled or rendered.
+ */
+final class ETags {
+
+	private ETags() {}
+
+	/**
+	 * Tag of a single item in the given media type, {@literal null} if it is not known which one it will be rendered in.
+	 */
+	static String of(Long id, Long version, MediaType mediaType) {
+
+		String tag = id + "." + version;
+		return "\"" + (mediaType != null ? tag + "." + mediaType.getType() + "/" + mediaType.getSubtype() : tag) + "\"";
+	}
+
+	/**
+	 * Tag of a whole window: changes whenever a row in it is added, removed or updated, or the window itself moves.
+	 * Weak, as windows are large enough to be sent compressed, and Tomcat won't compress a response with a strong tag.
+	 * Still one per kind of list (full, compact or a fieldset) and media type, as none of them stands in for another.
+	 */
+	static <T> String of(KeysetWindow<T> window, String kind, MediaType mediaType, Function<T, Long> id,
+			Function<T, Long> version) {
+
+		long hash = window.getParameters().hashCode();
+
+		for (T row : window.getContent()) {
+			hash = 31 * hash + id.apply(row);
+			hash = 31 * hash + Objects.hashCode(version.apply(row));
+		}
+
+		String tag = kind + "." + Long.toHexString(hash);
+		return "W/\"" + (mediaType != null ? tag + "." + mediaType.getType() + "/" + mediaType.getSubtype() : tag)
+				+ "\"";
+	}
+}
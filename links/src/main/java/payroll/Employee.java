@@ -4,16 +4,34 @@ import java.util.Objects;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@Table(indexes = { //
+		@Index(name = "employee_role", columnList = "role, id"), //
+		@Index(name = "employee_name", columnList = "lastName, firstName") })
 class Employee {
 
-	private @Id @GeneratedValue Long id;
+	// Pooled sequence, so inserts can be batched and ids are handed out without a round trip per row
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+	@SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
+	private Long id;
+
 	private String firstName;
 	private String lastName;
 	private String role;
 
+	// Bumped on every update, exposed to clients only as the ETag
+	private @Version @JsonIgnore Long version;
+
 	Employee() {}
 
 	Employee(String firstName, String lastName, String role) {
@@ -50,6 +68,10 @@ class Employee {
 		return this.role;
 	}
 
+	public Long getVersion() {
+		return this.version;
+	}
+
 	public void setId(Long id) {
 		this.id = id;
 	}
@@ -1,56 +1,183 @@
 package payroll;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
-
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.micrometer.core.annotation.Timed;
 
 // tag::constructor[]
 @RestController
+@Timed(value = MetricsConfiguration.HANDLER, histogram = true)
 class EmployeeController {
 
 	private final EmployeeRepository repository;
 
 	private final EmployeeModelAssembler assembler;
 	private final OrderModelAssembler orderAssembler;
+	private final NdjsonExporter exporter;
+	private final IdempotentRequests idempotentRequests;
+	private final RepresentationCache representations;
+	private final ListRequests lists;
 
 	EmployeeController(EmployeeRepository repository, EmployeeModelAssembler assembler,
-			OrderModelAssembler orderAssembler) {
+			OrderModelAssembler orderAssembler, NdjsonExporter exporter, IdempotentRequests idempotentRequests,
+			RepresentationCache representations, ListRequests lists) {
 
 		this.repository = repository;
 		this.assembler = assembler;
 		this.orderAssembler = orderAssembler;
+		this.exporter = exporter;
+		this.idempotentRequests = idempotentRequests;
+		this.representations = representations;
+		this.lists = lists;
 	}
 	// end::constructor[]
 
 	// Aggregate root
 
 	@GetMapping("/employees")
-	CollectionModel<EntityModel<Employee>> all() {
+	WebAsyncTask<ResponseEntity<CollectionModel<EntityModel<Employee>>>> all(
+			@RequestParam(required = false) String role, @RequestParam(required = false) String lastName,
+			@RequestParam(required = false) Long after, @RequestParam(required = false) Long before,
+			@RequestParam(required = false) Integer size, WebRequest request) {
+
+		return lists.submit(() -> {
+
+			Filter<Employee> filter = new Filter<Employee>() //
+					.equal("role", role) //
+					.equal("lastName", lastName);
+
+			KeysetWindow<Employee> employees = KeysetWindow.fetch(repository, filter, after, before, size,
+					Employee::getId);
+
+			String etag = ETags.of(employees, "full", representations.mediaType(request), //
+					Employee::getId, Employee::getVersion);
+
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			return ResponseEntity.ok().eTag(etag).body(assembler.toCollectionModel(employees));
+		});
+	}
+
+	/**
+	 * Sparse fieldset of the aggregate root, read through a projection instead of whole entities.
+	 */
+	@GetMapping(value = "/employees", params = "fields")
+	WebAsyncTask<ResponseEntity<?>> summaries(@RequestParam List<String> fields,
+			@RequestParam(required = false) String role, @RequestParam(required = false) String lastName,
+			@RequestParam(required = false) Long after, @RequestParam(required = false) Long before,
+			@RequestParam(required = false) Integer size, WebRequest request) {
+
+		return lists.submit(() -> {
+
+			if (!EmployeeSummary.isRequestedBy(fields)) {
+
+				return ResponseEntity //
+						.badRequest() //
+						.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
+						.body(Problem.create() //
+								.withTitle("Bad request") //
+								.withDetail("The supported fieldset is " + String.join(",", EmployeeSummary.FIELDS)));
+			}
+
+			Filter<Employee> filter = new Filter<Employee>() //
+					.equal("role", role) //
+					.equal("lastName", lastName);
+
+			KeysetWindow<EmployeeSummary> employees = KeysetWindow.fetch(repository, filter, EmployeeSummary.class, //
+					after, before, size, EmployeeSummary::id);
+
+			String etag = ETags.of(employees, "fields", representations.mediaType(request), //
+					EmployeeSummary::id, EmployeeSummary::version);
+
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			return ResponseEntity.ok().eTag(etag).body(assembler.toSummaryCollectionModel(employees));
+		});
+	}
+
+	/**
+	 * Compact variant of the aggregate root for large lists: employees without links of their own. The links they
+	 * would carry are given once, as templates to expand their id into.
+	 */
+	@GetMapping(value = "/employees", params = { "compact=true", "!fields" })
+	WebAsyncTask<ResponseEntity<CollectionModel<Employee>>> compact(@RequestParam(required = false) String role,
+			@RequestParam(required = false) String lastName, @RequestParam(required = false) Long after,
+			@RequestParam(required = false) Long before, @RequestParam(required = false) Integer size,
+			WebRequest request) {
+
+		return lists.submit(() -> {
+
+			Filter<Employee> filter = new Filter<Employee>() //
+					.equal("role", role) //
+					.equal("lastName", lastName);
+
+			KeysetWindow<Employee> employees = KeysetWindow.fetch(repository, filter, after, before, size,
+					Employee::getId);
+
+			String etag = ETags.of(employees, "compact", representations.mediaType(request), //
+					Employee::getId, Employee::getVersion);
+
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			return ResponseEntity.ok().eTag(etag).body(assembler.toCompactCollectionModel(employees));
+		});
+	}
 
-		List<EntityModel<Employee>> employees = repository.findAll().stream() //
-				.map(assembler::toModel) //
-				.collect(Collectors.toList());
+	@GetMapping(value = "/employees", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	ResponseEntity<StreamingResponseBody> export() {
 
-		return CollectionModel.of(employees, linkTo(methodOn(EmployeeController.class).all()).withSelfRel());
+		return ResponseEntity.ok() //
+				.contentType(MediaType.APPLICATION_NDJSON) //
+				.body(exporter.export(repository::streamAllByOrderByIdAsc));
 	}
 
 	@PostMapping("/employees")
-	ResponseEntity<?> newEmployee(@RequestBody Employee newEmployee) {
+	@Transactional
+	ResponseEntity<?> newEmployee(@RequestBody Employee newEmployee,
+			@RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
 
-		EntityModel<Employee> entityModel = assembler.toModel(repository.save(newEmployee));
+		// Ids are always generated: with one sent along, Hibernate would take the new employee for a detached one
+
+		Employee employee = idempotentRequests.execute("/employees", idempotencyKey, newEmployee, Employee.class,
+				() -> {
+
+					newEmployee.setId(null);
+					return repository.save(newEmployee);
+				});
+
+		EntityModel<Employee> entityModel = assembler.toModel(employee);
 
 		return ResponseEntity.created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entityModel);
 	}
@@ -58,24 +185,27 @@ class EmployeeController {
 	// Single item
 
 	@GetMapping("/employees/{id}")
-	EntityModel<Employee> one(@PathVariable Long id) {
+	ResponseEntity<?> one(@PathVariable Long id, WebRequest request) {
 
 		Employee employee = repository.findById(id) //
 				.orElseThrow(() -> new EmployeeNotFoundException(id));
 
-		return assembler.toModel(employee);
+		return representations.ok(Employee.class, employee.getId(), employee.getVersion(), request,
+				() -> assembler.toModel(employee));
 	}
 
 	@PutMapping("/employees/{id}")
 	ResponseEntity<?> replaceEmployee(@RequestBody Employee newEmployee, @PathVariable Long id) {
 
-		Employee updatedEmployee = repository.findById(id) //
+		Employee updatedEmployee = repository.findEmployeeById(id) //
 				.map(employee -> {
 					employee.setName(newEmployee.getName());
 					employee.setRole(newEmployee.getRole());
+					representations.evict(Employee.class, id);
 					return repository.save(employee);
 				}) //
 				.orElseGet(() -> {
+					newEmployee.setId(null);
 					return repository.save(newEmployee);
 				});
 
@@ -88,6 +218,57 @@ class EmployeeController {
 	ResponseEntity<?> deleteEmployee(@PathVariable Long id) {
 
 		repository.deleteById(id);
+		representations.evict(Employee.class, id);
+
+		return ResponseEntity.noContent().build();
+	}
+
+	// Batches, written through JDBC batching rather than a round trip per employee
+
+	@PostMapping("/employees/batch")
+	CollectionModel<EntityModel<Employee>> newEmployees(@RequestBody List<Employee> newEmployees) {
+
+		newEmployees.forEach(employee -> employee.setId(null));
+
+		return assembler.toCollectionModel(repository.saveAll(newEmployees));
+	}
+
+	@Transactional
+	@PutMapping("/employees/batch")
+	CollectionModel<EntityModel<Employee>> replaceEmployees(@RequestBody List<Employee> newEmployees) {
+
+		Map<Long, Employee> employees = repository.findAllById(newEmployees.stream() //
+				.map(Employee::getId) //
+				.filter(Objects::nonNull) //
+				.toList()).stream() //
+				.collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+		List<Employee> updatedEmployees = newEmployees.stream() //
+				.map(newEmployee -> {
+
+					Employee employee = newEmployee.getId() == null ? null : employees.get(newEmployee.getId());
+
+					if (employee == null) {
+						newEmployee.setId(null);
+						return newEmployee;
+					}
+
+					employee.setName(newEmployee.getName());
+					employee.setRole(newEmployee.getRole());
+					return employee;
+				}) //
+				.toList();
+
+		representations.evictAll(Employee.class, employees.keySet());
+
+		return assembler.toCollectionModel(repository.saveAll(updatedEmployees));
+	}
+
+	@DeleteMapping("/employees/batch")
+	ResponseEntity<?> deleteEmployees(@RequestParam List<Long> ids) {
+
+		repository.deleteAllByIdInBatch(ids);
+		representations.evictAll(Employee.class, ids);
 
 		return ResponseEntity.noContent().build();
 	}
@@ -2,18 +2,114 @@ package payroll;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
+import java.util.function.Function;
+
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.annotation.Timed;
+
 @Component
+@Timed(value = MetricsConfiguration.ASSEMBLER, histogram = true)
 class EmployeeModelAssembler implements RepresentationModelAssembler<Employee, EntityModel<Employee>> {
 
+	private final LinkTemplates<Templates> templates = new LinkTemplates<>(() -> new Templates( //
+			linkTo(methodOn(EmployeeController.class).one(null, null)).withSelfRel(),
+			linkTo(methodOn(EmployeeController.class).all(null, null, null, null, null, null)).withRel("employees"),
+			linkTo(methodOn(EmployeeController.class).summaries(EmployeeSummary.FIELDS, null, null, null, null, null,
+					null)).withRel("employees"),
+			linkTo(methodOn(EmployeeController.class).compact(null, null, null, null, null, null))
+					.withRel("employees")));
+
+	private final ParallelAssembly assembly;
+
+	EmployeeModelAssembler(ParallelAssembly assembly) {
+		this.assembly = assembly;
+	}
+
 	@Override
 	public EntityModel<Employee> toModel(Employee employee) {
+		return toModel(employee, templates.get());
+	}
+
+	@Override
+	public CollectionModel<EntityModel<Employee>> toCollectionModel(Iterable<? extends Employee> employees) {
+		return toCollectionModel(employees, templates.get());
+	}
+
+	CollectionModel<EntityModel<Employee>> toCollectionModel(KeysetWindow<Employee> window) {
+
+		Templates resolved = templates.get();
+		return toCollectionModel(window, resolved.employees(), employee -> toModel(employee, resolved));
+	}
+
+	/**
+	 * Sparse variant of {@link #toCollectionModel(KeysetWindow)}, whose self and cursor links keep the fieldset.
+	 */
+	CollectionModel<EntityModel<EmployeeSummary>> toSummaryCollectionModel(KeysetWindow<EmployeeSummary> window) {
+
+		Templates resolved = templates.get();
+		return toCollectionModel(window, resolved.summaries(), //
+				employee -> toModel(employee, employee.id(), resolved));
+	}
+
+	/**
+	 * Compact variant of {@link #toCollectionModel(KeysetWindow)}: the employees go without links, the collection
+	 * carries the templates of their links instead.
+	 */
+	CollectionModel<Employee> toCompactCollectionModel(KeysetWindow<Employee> window) {
+
+		Templates resolved = templates.get();
+
+		CollectionModel<Employee> employees = CollectionModel.of(window.getContent());
+		addWindowLinks(employees, window, resolved.compact());
+		employees.add(resolved.self().withRel(IanaLinkRelations.ITEM), resolved.employees());
+
+		return employees;
+	}
+
+	private <T> CollectionModel<EntityModel<T>> toCollectionModel(KeysetWindow<T> window, Link root,
+			Function<T, EntityModel<T>> toModel) {
+
+		CollectionModel<EntityModel<T>> employees = CollectionModel.of(assembly.map(window.getContent(), toModel));
+		addWindowLinks(employees, window, root);
+
+		return employees;
+	}
+
+	private static void addWindowLinks(CollectionModel<?> employees, KeysetWindow<?> window, Link root) {
+
+		employees.add(root.withSelfRel().expand(window.getParameters()));
+
+		if (window.getPreviousCursor() != null) {
+			employees.add(root.withRel(IanaLinkRelations.PREV).expand(window.getPreviousParameters()));
+		}
+
+		if (window.getNextCursor() != null) {
+			employees.add(root.withRel(IanaLinkRelations.NEXT).expand(window.getNextParameters()));
+		}
+	}
+
+	private CollectionModel<EntityModel<Employee>> toCollectionModel(Iterable<? extends Employee> employees,
+			Templates templates) {
+
+		return CollectionModel.of(assembly.map(employees, employee -> toModel(employee, templates)));
+	}
+
+	private EntityModel<Employee> toModel(Employee employee, Templates templates) {
+		return toModel(employee, employee.getId(), templates);
+	}
+
+	private <T> EntityModel<T> toModel(T employee, Long id, Templates templates) {
 
 		return EntityModel.of(employee, //
-				linkTo(methodOn(EmployeeController.class).one(employee.getId())).withSelfRel(),
-				linkTo(methodOn(EmployeeController.class).all()).withRel("employees"));
+				templates.self().expand(id), //
+				templates.employees());
 	}
+
+	private record Templates(Link self, Link employees, Link summaries, Link compact) {}
 }
@@ -5,12 +5,23 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @RestControllerAdvice
 class EmployeeNotFoundAdvice {
 
+	private final Counter notFound;
+
+	EmployeeNotFoundAdvice(MeterRegistry meterRegistry) {
+		this.notFound = meterRegistry.counter("payroll.not.found", "resource", "employee");
+	}
+
 	@ExceptionHandler(EmployeeNotFoundException.class)
 	@ResponseStatus(HttpStatus.NOT_FOUND)
 	String employeeNotFoundHandler(EmployeeNotFoundException ex) {
+
+		notFound.increment();
 		return ex.getMessage();
 	}
 }
@@ -1,7 +1,50 @@
 package payroll;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import org.hibernate.jpa.HibernateHints;
+
+interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
+
+	// Entity cache, only active with payroll.cache.enabled (see EntityCacheConfiguration)
+
+	@Override
+	@Cacheable(cacheNames = EntityCacheConfiguration.EMPLOYEES, key = "#p0", unless = "#result == null")
+	Optional<Employee> findById(Long id);
+
+	/**
+	 * Bypasses the entity cache, for callers about to change the employee: cached instances are shared between requests.
+	 */
+	Optional<Employee> findEmployeeById(Long id);
+
+	@Override
+	@CachePut(cacheNames = EntityCacheConfiguration.EMPLOYEES, key = "#result.id")
+	<S extends Employee> S save(S entity);
+
+	@Override
+	@CacheEvict(cacheNames = EntityCacheConfiguration.EMPLOYEES, allEntries = true)
+	<S extends Employee> List<S> saveAll(Iterable<S> entities);
+
+	@Override
+	@CacheEvict(cacheNames = EntityCacheConfiguration.EMPLOYEES, key = "#p0")
+	void deleteById(Long id);
 
-interface EmployeeRepository extends JpaRepository<Employee, Long> {
+	@Override
+	@CacheEvict(cacheNames = EntityCacheConfiguration.EMPLOYEES, allEntries = true)
+	void deleteAllByIdInBatch(Iterable<Long> ids);
 
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + NdjsonExporter.FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<Employee> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,32 @@
+package payroll;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.hateoas.server.core.Relation;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Projection of an {@link Employee} for {@code ?fields=id,name}: only these columns are read. Embedded under the same
+ * relation as full employees.
+ */
+@Relation(collectionRelation = "employeeList")
+record EmployeeSummary(Long id, @JsonIgnore String firstName, @JsonIgnore String lastName, @JsonIgnore Long version) {
+
+	static final List<String> FIELDS = List.of("id", "name");
+
+	/**
+	 * Whether {@code fields} asks for exactly the fields of this projection, in any order. Anything else can't be
+	 * answered with it.
+	 */
+	static boolean isRequestedBy(List<String> fields) {
+		return Set.copyOf(fields).equals(Set.copyOf(FIELDS));
+	}
+
+	@JsonProperty
+	String name() {
+		return this.firstName + " " + this.lastName;
+	}
+}
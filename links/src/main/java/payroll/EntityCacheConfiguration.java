@@ -0,0 +1,42 @@
+package payroll;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns on the entity caches declared on {@link EmployeeRepository} and {@link OrderRepository} when
+ * {@code payroll.cache.enabled=true}. Without it the cache annotations are inert and every lookup goes to the
+ * database. Size and expiry come from {@code spring.cache.caffeine.spec}, hit/miss/eviction counts are published as
+ * {@code cache.*} metrics.
+ * <p>
+ * Puts and evictions made inside a transaction only reach the caches once it commits, so other requests never see
+ * uncommitted or rolled back rows. Cached entities are shared between requests: whoever changes an entity reads it
+ * with one of the repositories' uncached finders instead.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(name = "payroll.cache.enabled", havingValue = "true")
+class EntityCacheConfiguration {
+
+	static final String EMPLOYEES = "employees";
+	static final String ORDERS = "orders";
+
+	@Bean
+	static BeanPostProcessor transactionAwareCacheManager() {
+
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)
+						? new TransactionAwareCacheManagerProxy(cacheManager)
+						: bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,50 @@
+package payroll;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Appends events to a local file as newline delimited JSON, for tests and for downstream consumers that tail a file.
+ * A batch only counts as delivered once it has been forced to disk.
+ */
+class FileOutboxSink implements OutboxSink {
+
+	private final Path file;
+	private final ObjectMapper objectMapper;
+
+	FileOutboxSink(Path file, ObjectMapper objectMapper) {
+
+		this.file = file;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public void publish(List<OutboxEvent> events) throws IOException {
+
+		ByteArrayOutputStream lines = new ByteArrayOutputStream();
+
+		for (OutboxEvent event : events) {
+			lines.write(objectMapper.writeValueAsBytes(event));
+			lines.write('\n');
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+
+			channel.force(false);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package payroll;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Optional conditions on an aggregate root taken from request parameters. Conditions without a value are left out, so
+ * the same filter serves any combination of parameters, and the parameters that were given are kept to carry them
+ * over into the links to other windows.
+ */
+final class Filter<T> {
+
+	private final List<Specification<T>> conditions = new ArrayList<>();
+	private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+	/**
+	 * Match rows whose {@code attribute} equals {@code value}, unless it is {@literal null}.
+	 */
+	Filter<T> equal(String attribute, Object value) {
+
+		if (value != null) {
+			conditions.add((root, query, builder) -> builder.equal(root.get(attribute), value));
+			parameters.put(attribute, value);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Match rows whose {@code attribute} starts with {@code prefix}, unless it is {@literal null} or empty.
+	 */
+	Filter<T> startsWith(String attribute, String prefix) {
+
+		if (prefix != null && !prefix.isEmpty()) {
+
+			String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+			conditions.add((root, query, builder) -> builder.like(root.get(attribute), pattern, '\\'));
+			parameters.put(attribute, prefix);
+		}
+
+		return this;
+	}
+
+	Specification<T> toSpecification() {
+		return Specification.allOf(conditions);
+	}
+
+	Map<String, Object> getParameters() {
+		return this.parameters;
+	}
+}
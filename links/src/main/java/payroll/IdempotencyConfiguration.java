@@ -0,0 +1,38 @@
+package payroll;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Picks the {@link IdempotencyStore} behind {@code Idempotency-Key} headers: in memory by default, in the database
+ * with {@code payroll.idempotency.store=jdbc}. Either way results are kept for {@code payroll.idempotency.ttl}, and
+ * duplicates wait up to {@code payroll.idempotency.wait} for the first request before they are answered with a 409.
+ */
+@Configuration
+class IdempotencyConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "payroll.idempotency.store", havingValue = "jdbc")
+	IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbc, ObjectMapper objectMapper,
+			@Value("${payroll.idempotency.ttl}") Duration timeToLive,
+			@Value("${payroll.idempotency.wait}") Duration wait) {
+		return new JdbcIdempotencyStore(jdbc, objectMapper, Clock.systemUTC(), timeToLive, wait);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean(IdempotencyStore.class)
+	IdempotencyStore inMemoryIdempotencyStore(@Value("${payroll.idempotency.ttl}") Duration timeToLive,
+			@Value("${payroll.idempotency.maximum-size}") long maximumSize,
+			@Value("${payroll.idempotency.wait}") Duration wait) {
+		return new InMemoryIdempotencyStore(timeToLive, maximumSize, wait);
+	}
+}
@@ -0,0 +1,25 @@
+package payroll;
+
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+class IdempotencyKeyInFlightAdvice {
+
+	@ExceptionHandler(IdempotencyKeyInFlightException.class)
+	ResponseEntity<Problem> idempotencyKeyInFlightHandler(IdempotencyKeyInFlightException ex) {
+
+		return ResponseEntity //
+				.status(HttpStatus.CONFLICT) //
+				.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
+				.header(HttpHeaders.RETRY_AFTER, "1") //
+				.body(Problem.create() //
+						.withTitle("Conflict") //
+						.withDetail(ex.getMessage()));
+	}
+}
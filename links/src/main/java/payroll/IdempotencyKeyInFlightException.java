@@ -0,0 +1,8 @@
+package payroll;
+
+class IdempotencyKeyInFlightException extends RuntimeException {
+
+	IdempotencyKeyInFlightException(String key) {
+		super("A request with idempotency key " + key + " is still in progress");
+	}
+}
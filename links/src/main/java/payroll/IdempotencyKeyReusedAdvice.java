@@ -0,0 +1,16 @@
+package payroll;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+class IdempotencyKeyReusedAdvice {
+
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+	String idempotencyKeyReusedHandler(IdempotencyKeyReusedException ex) {
+		return ex.getMessage();
+	}
+}
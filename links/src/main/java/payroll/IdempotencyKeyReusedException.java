@@ -0,0 +1,8 @@
+package payroll;
+
+class IdempotencyKeyReusedException extends RuntimeException {
+
+	IdempotencyKeyReusedException(String key) {
+		super("Idempotency key " + key + " was already used for a different request");
+	}
+}
@@ -0,0 +1,25 @@
+package payroll;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers what a request sent with an {@code Idempotency-Key} header created, so that retries of it return the same
+ * result rather than creating it again. Must be called within the transaction that creates the result: nothing is
+ * remembered unless that transaction commits.
+ */
+interface IdempotencyStore {
+
+	String HEADER = "Idempotency-Key";
+
+	/**
+	 * Run {@code action} unless it already ran for {@code key}, in which case its result is returned instead. Duplicates
+	 * arriving while the first execution is still in flight wait for and share its result, up to a bound.
+	 *
+	 * @param key the idempotency key, scoped to the resource it is used for
+	 * @param fingerprint digest of the request, to tell retries from different requests reusing the key
+	 * @param type the type of result, to restore it as
+	 * @throws IdempotencyKeyReusedException if {@code key} was used for a different request
+	 * @throws IdempotencyKeyInFlightException if the first execution is still in flight after waiting for it
+	 */
+	<T> T execute(String key, String fingerprint, Class<T> type, Supplier<T> action);
+}
@@ -0,0 +1,53 @@
+package payroll;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Makes creating handlers idempotent for clients that send an {@value IdempotencyStore#HEADER} header, by running
+ * them through the {@link IdempotencyStore}. Requests without one are executed as they are.
+ */
+@Component
+class IdempotentRequests {
+
+	private final IdempotencyStore store;
+	private final ObjectMapper objectMapper;
+
+	IdempotentRequests(IdempotencyStore store, ObjectMapper objectMapper) {
+
+		this.store = store;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * @param resource the resource created, keys are only unique per resource
+	 * @param key the client's idempotency key, if any
+	 * @param request the request body, to recognize a key reused for another request
+	 */
+	<T> T execute(String resource, @Nullable String key, Object request, Class<T> type, Supplier<T> action) {
+
+		if (key == null) {
+			return action.get();
+		}
+
+		return store.execute(resource + " " + key, fingerprint(request), type, action);
+	}
+
+	private String fingerprint(Object request) {
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+			return HexFormat.of().formatHex(digest);
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
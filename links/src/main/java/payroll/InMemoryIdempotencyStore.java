@@ -0,0 +1,103 @@
+package payroll;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps results of idempotent requests in a bounded Caffeine cache, expiring them after a fixed time. Only covers
+ * retries that reach the same instance. Duplicates wait for the first execution's transaction for a bounded time.
+ */
+class InMemoryIdempotencyStore implements IdempotencyStore {
+
+	private final ConcurrentMap<String, Execution> executions;
+	private final Duration wait;
+
+	InMemoryIdempotencyStore(Duration timeToLive, long maximumSize, Duration wait) {
+
+		this.wait = wait;
+
+		this.executions = Caffeine.newBuilder() //
+				.expireAfterWrite(timeToLive) //
+				.maximumSize(maximumSize) //
+				.<String, Execution> build() //
+				.asMap();
+	}
+
+	@Override
+	public <T> T execute(String key, String fingerprint, Class<T> type, Supplier<T> action) {
+
+		// Without a transaction to wait for, a duplicate would wait for the result forever
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Idempotent requests must be executed within a transaction");
+		}
+
+		Execution execution = new Execution(fingerprint, new CompletableFuture<>());
+		Execution existing = executions.putIfAbsent(key, execution);
+
+		if (existing != null) {
+
+			if (!existing.fingerprint().equals(fingerprint)) {
+				throw new IdempotencyKeyReusedException(key);
+			}
+
+			try {
+				return type.cast(existing.result().get(wait.toMillis(), TimeUnit.MILLISECONDS));
+			} catch (ExecutionException e) {
+				// The first attempt failed and was forgotten, so this one gets to try
+				return execute(key, fingerprint, type, action);
+			} catch (TimeoutException e) {
+				throw new IdempotencyKeyInFlightException(key);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IdempotencyKeyInFlightException(key);
+			}
+		}
+
+		// Registered before the action runs, so the execution is settled however the transaction ends. Duplicates must
+		// not see a result that is rolled back after all.
+
+		AtomicReference<T> result = new AtomicReference<>();
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCompletion(int status) {
+
+				if (status == STATUS_COMMITTED) {
+					execution.result().complete(result.get());
+				} else {
+					forget(key, execution, new IllegalStateException("Transaction rolled back"));
+				}
+			}
+		});
+
+		try {
+			result.set(action.get());
+		} catch (RuntimeException e) {
+			forget(key, execution, e);
+			throw e;
+		}
+
+		return result.get();
+	}
+
+	private void forget(String key, Execution execution, Throwable cause) {
+
+		executions.remove(key, execution);
+		execution.result().completeExceptionally(cause);
+	}
+
+	private record Execution(String fingerprint, CompletableFuture<Object> result) {}
+}
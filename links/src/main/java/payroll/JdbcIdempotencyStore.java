@@ -0,0 +1,178 @@
+package payroll;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps results of idempotent requests in the database as JSON, so retries are recognized by every instance. The key
+ * is claimed by inserting it in the transaction that creates the result: a concurrent duplicate's insert waits on
+ * that row until the transaction ends, then either finds the committed result or, after a rollback, claims the key
+ * itself. If the database gives up waiting for the lock first, the duplicate backs off and tries again, until it has
+ * waited longer than the configured bound. Records are deleted once they are older than the time to live.
+ */
+class JdbcIdempotencyStore implements IdempotencyStore {
+
+	private static final String INSERT = "INSERT INTO idempotency_record (idempotency_key, fingerprint, created_at) "
+			+ "VALUES (?, ?, ?)";
+
+	private static final long MAX_BACKOFF_MILLIS = 200;
+
+	private final JdbcTemplate jdbc;
+	private final ObjectMapper objectMapper;
+	private final Clock clock;
+	private final Duration timeToLive;
+	private final Duration wait;
+
+	JdbcIdempotencyStore(JdbcTemplate jdbc, ObjectMapper objectMapper, Clock clock, Duration timeToLive,
+			Duration wait) {
+
+		this.jdbc = jdbc;
+		this.objectMapper = objectMapper;
+		this.clock = clock;
+		this.timeToLive = timeToLive;
+		this.wait = wait;
+
+		jdbc.execute("CREATE TABLE IF NOT EXISTS idempotency_record (" //
+				+ "idempotency_key VARCHAR(300) PRIMARY KEY, " //
+				+ "fingerprint VARCHAR(64) NOT NULL, " //
+				+ "result VARCHAR(4000), " //
+				+ "created_at TIMESTAMP NOT NULL)");
+	}
+
+	@Override
+	public <T> T execute(String key, String fingerprint, Class<T> type, Supplier<T> action) {
+
+		Claim claim = claim(key, fingerprint);
+		Instant deadline = clock.instant().plus(wait);
+		long backoff = 10;
+
+		while (claim == Claim.IN_FLIGHT) {
+
+			if (!clock.instant().isBefore(deadline)) {
+				throw new IdempotencyKeyInFlightException(key);
+			}
+
+			try {
+				Thread.sleep(backoff);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IdempotencyKeyInFlightException(key);
+			}
+
+			backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+			claim = claim(key, fingerprint);
+		}
+
+		if (claim == Claim.TAKEN) {
+			return replay(key, fingerprint, type);
+		}
+
+		T result = action.get();
+
+		jdbc.update("UPDATE idempotency_record SET result = ? WHERE idempotency_key = ?", toJson(result), key);
+		return result;
+	}
+
+	@Scheduled(fixedDelayString = "PT1M")
+	void expire() {
+		jdbc.update("DELETE FROM idempotency_record WHERE created_at < ?",
+				Timestamp.from(clock.instant().minus(timeToLive)));
+	}
+
+	// A failed insert must not abort the surrounding transaction, hence the savepoint
+
+	private Claim claim(String key, String fingerprint) {
+
+		return jdbc.execute((ConnectionCallback<Claim>) connection -> {
+
+			Savepoint savepoint = connection.setSavepoint();
+
+			try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+
+				insert.setString(1, key);
+				insert.setString(2, fingerprint);
+				insert.setTimestamp(3, Timestamp.from(clock.instant()));
+				insert.executeUpdate();
+
+				connection.releaseSavepoint(savepoint);
+				return Claim.CLAIMED;
+
+			} catch (SQLException e) {
+
+				connection.rollback(savepoint);
+
+				DataAccessException translated = jdbc.getExceptionTranslator().translate("claim", INSERT, e);
+
+				if (translated instanceof DuplicateKeyException) {
+					return Claim.TAKEN;
+				}
+
+				// Depending on the database, giving up on the lock is reported either way
+
+				if (translated instanceof CannotAcquireLockException || translated instanceof QueryTimeoutException) {
+					return Claim.IN_FLIGHT;
+				}
+
+				throw e;
+			}
+		});
+	}
+
+	private <T> T replay(String key, String fingerprint, Class<T> type) {
+
+		Map<String, Object> record = jdbc.queryForMap(
+				"SELECT fingerprint, result FROM idempotency_record WHERE idempotency_key = ?", key);
+
+		if (!fingerprint.equals(record.get("fingerprint"))) {
+			throw new IdempotencyKeyReusedException(key);
+		}
+
+		try {
+			return objectMapper.readValue((String) record.get("result"), type);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String toJson(Object result) {
+
+		try {
+			return objectMapper.writeValueAsString(result);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private enum Claim {
+
+		CLAIMED,
+
+		/**
+		 * By a transaction that has committed since.
+		 */
+		TAKEN,
+
+		/**
+		 * By a transaction that is still in flight, the insert timed out waiting for it.
+		 */
+		IN_FLIGHT
+	}
+}
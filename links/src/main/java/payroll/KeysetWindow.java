@@ -0,0 +1,195 @@
+package payroll;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+
+/**
+ * One window of a keyset (id based cursor) scroll over an aggregate root. Unlike offset paging, fetching a window is
+ * an index range scan on the primary key no matter how deep into the table the client is, and no window ever loads
+ * more than {@link #MAX_SIZE} rows.
+ */
+final class KeysetWindow<T> {
+
+	static final int DEFAULT_SIZE = 20;
+	static final int MAX_SIZE = 100;
+
+	private static final String ID = "id";
+
+	private final List<T> content;
+	private final Map<String, Object> filter;
+	private final Long after;
+	private final Long before;
+	private final int size;
+	private final Long previousCursor;
+	private final Long nextCursor;
+
+	private KeysetWindow(List<T> content, Map<String, Object> filter, Long after, Long before, int size,
+			Long previousCursor, Long nextCursor) {
+
+		this.content = content;
+		this.filter = filter;
+		this.after = after;
+		this.before = before;
+		this.size = size;
+		this.previousCursor = previousCursor;
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * Fetch the window of rows matching {@code filter} after (or, if {@code before} is given, before) the given cursor.
+	 * One extra row is requested to find out whether there is anything beyond the window without a separate count
+	 * query.
+	 *
+	 * @param repository repository of the aggregate root, whose id attribute is the cursor
+	 * @param filter conditions rows must meet, carried over into the parameters of neighbouring windows
+	 * @param after id the window starts after, {@literal null} to start at the beginning
+	 * @param before id the window ends before, takes precedence over {@code after}
+	 * @param size requested window size, clamped to {@code [1, MAX_SIZE]}
+	 * @param id extracts the cursor from an element
+	 */
+	static <T> KeysetWindow<T> fetch(JpaSpecificationExecutor<T> repository, Filter<T> filter, Long after, Long before,
+			Integer size, Function<T, Long> id) {
+		return fetch(repository, filter, query -> query, after, before, size, id);
+	}
+
+	/**
+	 * Like {@link #fetch(JpaSpecificationExecutor, Filter, Long, Long, Integer, Function)}, but only reads the columns
+	 * of the given projection rather than whole entities.
+	 *
+	 * @param projection interface or DTO projection of the aggregate root
+	 */
+	static <T, P> KeysetWindow<P> fetch(JpaSpecificationExecutor<T> repository, Filter<T> filter, Class<P> projection,
+			Long after, Long before, Integer size, Function<P, Long> id) {
+		return fetch(repository, filter, query -> query.as(projection), after, before, size, id);
+	}
+
+	private static <T, R> KeysetWindow<R> fetch(JpaSpecificationExecutor<T> repository, Filter<T> filter,
+			Function<FetchableFluentQuery<T>, FetchableFluentQuery<R>> projection, Long after, Long before,
+			Integer size, Function<R, Long> id) {
+
+		Specification<T> matching = filter.toSpecification();
+
+		return fetch(filter.getParameters(), after, before, size, id, //
+				(cursor, limit) -> repository.findBy(matching.and(idGreaterThan(cursor)), //
+						query -> projection.apply(query.sortBy(Sort.by(ID).ascending()).limit(limit.max())).all()),
+				(cursor, limit) -> repository.findBy(matching.and(idLessThan(cursor)), //
+						query -> projection.apply(query.sortBy(Sort.by(ID).descending()).limit(limit.max())).all()));
+	}
+
+	private static <T> KeysetWindow<T> fetch(Map<String, Object> filter, Long after, Long before, Integer size,
+			Function<T, Long> id, BiFunction<Long, Limit, List<T>> ascending,
+			BiFunction<Long, Limit, List<T>> descending) {
+
+		int windowSize = clamp(size);
+		Limit limit = Limit.of(windowSize + 1);
+
+		if (before != null) {
+
+			List<T> rows = new ArrayList<>(descending.apply(before, limit));
+			boolean hasPrevious = rows.size() > windowSize;
+			List<T> content = rows.subList(0, Math.min(rows.size(), windowSize));
+			Collections.reverse(content);
+
+			// An empty window past the start still leads back to the rows from its cursor on
+
+			Long previous = hasPrevious ? id.apply(content.get(0)) : null;
+			Long next = content.isEmpty() ? before - 1 : id.apply(content.get(content.size() - 1));
+			return new KeysetWindow<>(content, filter, null, before, windowSize, previous, next);
+		}
+
+		List<T> rows = ascending.apply(after == null ? Long.MIN_VALUE : after, limit);
+		boolean hasNext = rows.size() > windowSize;
+		List<T> content = rows.subList(0, Math.min(rows.size(), windowSize));
+
+		// Likewise, an empty window past the end leads back to the rows up to its cursor
+
+		Long previous = after == null ? null : content.isEmpty() ? after + 1 : id.apply(content.get(0));
+		Long next = hasNext ? id.apply(content.get(content.size() - 1)) : null;
+		return new KeysetWindow<>(content, filter, after, null, windowSize, previous, next);
+	}
+
+	private static <T> Specification<T> idGreaterThan(Long id) {
+		return (root, query, builder) -> builder.greaterThan(root.get(ID), id);
+	}
+
+	private static <T> Specification<T> idLessThan(Long id) {
+		return (root, query, builder) -> builder.lessThan(root.get(ID), id);
+	}
+
+	static int clamp(Integer size) {
+		return size == null ? DEFAULT_SIZE : Math.max(1, Math.min(size, MAX_SIZE));
+	}
+
+	List<T> getContent() {
+		return this.content;
+	}
+
+	Long getAfter() {
+		return this.after;
+	}
+
+	Long getBefore() {
+		return this.before;
+	}
+
+	int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return the {@code before} cursor of the previous window, or {@literal null} if this is the first one
+	 */
+	Long getPreviousCursor() {
+		return this.previousCursor;
+	}
+
+	/**
+	 * @return the {@code after} cursor of the next window, or {@literal null} if this is the last one
+	 */
+	Long getNextCursor() {
+		return this.nextCursor;
+	}
+
+	/**
+	 * @return the request parameters selecting this window, filter included, to be expanded into the aggregate root's
+	 *         link template
+	 */
+	Map<String, Object> getParameters() {
+		return parameters(after, before);
+	}
+
+	Map<String, Object> getPreviousParameters() {
+		return parameters(null, previousCursor);
+	}
+
+	Map<String, Object> getNextParameters() {
+		return parameters(nextCursor, null);
+	}
+
+	private Map<String, Object> parameters(Long after, Long before) {
+
+		Map<String, Object> parameters = new LinkedHashMap<>(filter);
+
+		if (after != null) {
+			parameters.put("after", after);
+		}
+
+		if (before != null) {
+			parameters.put("before", before);
+		}
+
+		parameters.put("size", size);
+		return parameters;
+	}
+}
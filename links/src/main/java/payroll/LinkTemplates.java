@@ -0,0 +1,45 @@
+package payroll;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Holds link templates built through {@code linkTo(methodOn(...))} once per base URI of the current request, so
+ * assemblers only have to expand an id into them per entity instead of going through a proxy invocation and mapping
+ * lookup for every link of every row.
+ */
+final class LinkTemplates<T> {
+
+	// Requests can arrive under a handful of host names; anything beyond that is not worth remembering
+	private static final int MAX_BASE_URIS = 16;
+
+	private final Map<String, T> templates = new ConcurrentHashMap<>();
+	private final Supplier<T> resolver;
+
+	LinkTemplates(Supplier<T> resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * @return the templates for the base URI of the current request
+	 */
+	T get() {
+
+		String baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString();
+		T resolved = templates.get(baseUri);
+
+		if (resolved == null) {
+
+			if (templates.size() >= MAX_BASE_URIS) {
+				templates.clear();
+			}
+
+			resolved = templates.computeIfAbsent(baseUri, key -> resolver.get());
+		}
+
+		return resolved;
+	}
+}
@@ -0,0 +1,118 @@
+package payroll;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs the collection handlers off the container's threads, on a pool of their own
+ * ({@code payroll.lists.threads}), so scans of {@code /orders} and {@code /employees} never hold up cheap single item
+ * requests. Requests waiting for a thread are bounded ({@code payroll.lists.queue-capacity}) and so is the time a
+ * request may take from being queued to being answered ({@code payroll.lists.timeout}). Past either bound it fails
+ * fast with a {@link ListRequestsUnavailableException}.
+ * <p>
+ * Spring MVC binds the request to the worker thread, {@code linkTo} works there as it does on the container's. The
+ * pool is published as {@code executor.*} metrics of {@value #NAME}.
+ * <p>
+ * The handler only returns the task, so its {@code @Timed} timer is recorded here instead, from submitting the task to
+ * its end, waiting for a thread included. Submitted requests are marked with the {@value #SUBMITTED} attribute, for
+ * the {@link ThrottlingFilter} to wait for their answer as well.
+ */
+@Component
+class ListRequests implements DisposableBean {
+
+	static final String NAME = "lists";
+	static final String SUBMITTED = "payroll.lists.submitted";
+
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+	private final Duration timeout;
+	private final MeterRegistry meterRegistry;
+
+	ListRequests(@Value("${payroll.lists.threads}") int threads,
+			@Value("${payroll.lists.queue-capacity}") int queueCapacity,
+			@Value("${payroll.lists.timeout}") Duration timeout, MeterRegistry meterRegistry) {
+
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix(NAME + "-");
+		executor.setRejectedExecutionHandler((task, pool) -> {
+			throw new ListRequestsUnavailableException(
+					"All " + threads + " list threads are busy and " + queueCapacity + " requests are waiting");
+		});
+		executor.initialize();
+
+		this.timeout = timeout;
+		this.meterRegistry = meterRegistry;
+
+		ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), NAME);
+	}
+
+	<T> WebAsyncTask<T> submit(Callable<T> handler) {
+
+		RequestAttributes request = RequestContextHolder.currentRequestAttributes();
+		request.setAttribute(SUBMITTED, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+
+		WebAsyncTask<T> task = new WebAsyncTask<>(timeout.toMillis(), executor, timed(handler, request));
+
+		task.onTimeout(() -> {
+			throw new ListRequestsUnavailableException("List request not answered within " + timeout.toMillis() + "ms");
+		});
+
+		return task;
+	}
+
+	// Same name and tags as TimedAspect gives the handlers that answer right away
+
+	private <T> Callable<T> timed(Callable<T> handler, RequestAttributes request) {
+
+		HandlerMethod method = (HandlerMethod) request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+
+		if (method == null) {
+			return handler;
+		}
+
+		Tags tags = Tags.of("class", method.getMethod().getDeclaringClass().getName(), //
+				"method", method.getMethod().getName());
+		Timer.Sample sample = Timer.start(meterRegistry);
+
+		return () -> {
+
+			String exception = TimedAspect.DEFAULT_EXCEPTION_TAG_VALUE;
+
+			try {
+				return handler.call();
+			} catch (Exception e) {
+				exception = e.getClass().getSimpleName();
+				throw e;
+			} finally {
+				sample.stop(Timer.builder(MetricsConfiguration.HANDLER) //
+						.tags(tags) //
+						.tag(TimedAspect.EXCEPTION_TAG, exception) //
+						.publishPercentileHistogram() //
+						.register(meterRegistry));
+			}
+		};
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+}
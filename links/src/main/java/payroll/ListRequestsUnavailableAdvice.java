@@ -0,0 +1,36 @@
+package payroll;
+
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RestControllerAdvice
+class ListRequestsUnavailableAdvice {
+
+	private final Counter rejected;
+
+	ListRequestsUnavailableAdvice(MeterRegistry meterRegistry) {
+		this.rejected = meterRegistry.counter("payroll.throttled", "reason", "saturation", "budget", "list");
+	}
+
+	@ExceptionHandler(ListRequestsUnavailableException.class)
+	ResponseEntity<Problem> listRequestsUnavailableHandler(ListRequestsUnavailableException ex) {
+
+		rejected.increment();
+
+		return ResponseEntity //
+				.status(HttpStatus.SERVICE_UNAVAILABLE) //
+				.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
+				.header(HttpHeaders.RETRY_AFTER, "1") //
+				.body(Problem.create() //
+						.withTitle("Service unavailable") //
+						.withDetail(ex.getMessage()));
+	}
+}
@@ -0,0 +1,8 @@
+package payroll;
+
+class ListRequestsUnavailableException extends RuntimeException {
+
+	ListRequestsUnavailableException(String message) {
+		super(message);
+	}
+}
@@ -1,33 +1,57 @@
 package payroll;
 
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 
+/**
+ * Seeds the database from {@code payroll.seed.employees} and {@code payroll.seed.orders} through the
+ * {@link DatabaseSeeder}. Seeding runs in the background, so large seeds don't hold up startup, unless
+ * {@code payroll.seed.blocking=true}.
+ */
 @Configuration
 class LoadDatabase {
 
 	private static final Logger log = LoggerFactory.getLogger(LoadDatabase.class);
 
 	@Bean
-	CommandLineRunner initDatabase(EmployeeRepository employeeRepository, OrderRepository orderRepository) {
+	CommandLineRunner initDatabase(DatabaseSeeder seeder, Executor applicationTaskExecutor,
+			@Value("${payroll.seed.employees:}") Resource employees, @Value("${payroll.seed.orders:}") Resource orders,
+			@Value("${payroll.seed.blocking}") boolean blocking) {
 
 		return args -> {
-			employeeRepository.save(new Employee("Bilbo", "Baggins", "burglar"));
-			employeeRepository.save(new Employee("Frodo", "Baggins", "thief"));
 
-			employeeRepository.findAll().forEach(employee -> log.info("Preloaded " + employee));
+			if (blocking) {
+				seed(seeder, employees, orders);
+				return;
+			}
 
-			
-			orderRepository.save(new Order("MacBook Pro", Status.COMPLETED));
-			orderRepository.save(new Order("iPhone", Status.IN_PROGRESS));
+			applicationTaskExecutor.execute(() -> {
 
-			orderRepository.findAll().forEach(order -> {
-				log.info("Preloaded " + order);
+				try {
+					seed(seeder, employees, orders);
+				} catch (Exception e) {
+					log.error("Seeding the database failed", e);
+				}
 			});
-			
 		};
 	}
+
+	private static void seed(DatabaseSeeder seeder, Resource employees, Resource orders) throws IOException {
+
+		if (employees != null && employees.exists()) {
+			seeder.seed(employees, Employee.class);
+		}
+
+		if (orders != null && orders.exists()) {
+			seeder.seed(orders, Order.class);
+		}
+	}
 }
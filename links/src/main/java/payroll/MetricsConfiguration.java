@@ -0,0 +1,50 @@
+package payroll;
+
+import java.util.function.Predicate;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Application metrics on top of what Spring Boot records by itself ({@code http.server.requests} for whole requests,
+ * {@code spring.data.repository.invocations} for every repository call). {@code @Timed} handlers and assemblers are
+ * timed as {@code payroll.handler} and {@code payroll.assembler}: whatever a request spends outside the handler is
+ * serialization. Committed order transitions are counted as {@code payroll.orders.transitions} by status, lookups of
+ * missing employees and orders as {@code payroll.not.found} by resource.
+ */
+@Configuration
+class MetricsConfiguration {
+
+	static final String HANDLER = "payroll.handler";
+	static final String ASSEMBLER = "payroll.assembler";
+
+	private final MeterRegistry meterRegistry;
+
+	MetricsConfiguration(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	// Handlers returning a WebAsyncTask have only just submitted it, ListRequests times them until it ends
+
+	@Bean
+	TimedAspect timedAspect() {
+
+		Predicate<ProceedingJoinPoint> skip = pjp -> ((MethodSignature) pjp.getSignature())
+				.getReturnType() == WebAsyncTask.class;
+
+		return new TimedAspect(meterRegistry, skip);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(OrderStatusChanged event) {
+		meterRegistry.counter("payroll.orders.transitions", "status", event.status().name()).increment();
+	}
+}
@@ -0,0 +1,69 @@
+package payroll;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes every row of a repository stream to the response as newline delimited JSON. Rows are detached as soon as
+ * they are written, so memory stays flat no matter how many rows are exported.
+ */
+@Component
+class NdjsonExporter {
+
+	static final int FETCH_SIZE = 500;
+
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectWriter writer;
+
+	NdjsonExporter(EntityManager entityManager, PlatformTransactionManager transactionManager,
+			ObjectMapper objectMapper) {
+
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	<T> StreamingResponseBody export(Supplier<Stream<T>> rows) {
+
+		return out -> transactionTemplate.executeWithoutResult(status -> {
+
+			try (Stream<T> stream = rows.get(); JsonGenerator generator = writer.createGenerator(out)) {
+
+				generator.setRootValueSeparator(null);
+
+				stream.forEach(row -> {
+					write(generator, row);
+					entityManager.detach(row);
+				});
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private void write(JsonGenerator generator, Object row) {
+
+		try {
+			writer.writeValue(generator, row);
+			generator.writeRaw('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -3,19 +3,41 @@ package payroll;
 import java.util.Objects;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "CUSTOMER_ORDER")
+@Table(name = "CUSTOMER_ORDER", indexes = @Index(name = "customer_order_status", columnList = "status, id"))
 class Order {
 
-	private @Id @GeneratedValue Long id;
+	// Pooled sequence, so inserts can be batched and ids are handed out without a round trip per row
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_order_seq")
+	@SequenceGenerator(name = "customer_order_seq", sequenceName = "customer_order_seq", allocationSize = 50)
+	private Long id;
 
 	private String description;
+
+	// Native enum column: a single byte per row, but still readable and safe to reorder Status constants
+	@Enumerated(EnumType.STRING)
+	@JdbcTypeCode(SqlTypes.ENUM)
 	private Status status;
 
+	// Bumped on every update, exposed to clients only as the ETag
+	private @Version @JsonIgnore Long version;
+
 	Order() {}
 
 	Order(String description, Status status) {
@@ -36,6 +58,10 @@ class Order {
 		return this.status;
 	}
 
+	public Long getVersion() {
+		return this.version;
+	}
+
 	public void setId(Long id) {
 		this.id = id;
 	}
@@ -2,81 +2,227 @@ package payroll;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.mediatype.problem.Problem;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.micrometer.core.annotation.Timed;
 
 // tag::main[]
 @RestController
+@Timed(value = MetricsConfiguration.HANDLER, histogram = true)
 class OrderController {
 
 	private final OrderRepository orderRepository;
 	private final OrderModelAssembler assembler;
+	private final NdjsonExporter exporter;
+	private final OrderEventStream events;
+	private final ApplicationEventPublisher publisher;
+	private final IdempotentRequests idempotentRequests;
+	private final RepresentationCache representations;
+	private final ListRequests lists;
 
-	OrderController(OrderRepository orderRepository, OrderModelAssembler assembler) {
+	OrderController(OrderRepository orderRepository, OrderModelAssembler assembler, NdjsonExporter exporter,
+			OrderEventStream events, ApplicationEventPublisher publisher, IdempotentRequests idempotentRequests,
+			RepresentationCache representations, ListRequests lists) {
 
 		this.orderRepository = orderRepository;
 		this.assembler = assembler;
+		this.exporter = exporter;
+		this.events = events;
+		this.publisher = publisher;
+		this.idempotentRequests = idempotentRequests;
+		this.representations = representations;
+		this.lists = lists;
 	}
 
 	@GetMapping("/orders")
-	CollectionModel<EntityModel<Order>> all() {
+	WebAsyncTask<ResponseEntity<CollectionModel<EntityModel<Order>>>> all(@RequestParam(required = false) Status status,
+			@RequestParam(required = false) String description, @RequestParam(required = false) Long after,
+			@RequestParam(required = false) Long before, @RequestParam(required = false) Integer size,
+			WebRequest request) {
+
+		return lists.submit(() -> {
+
+			Filter<Order> filter = new Filter<Order>() //
+					.equal("status", status) //
+					.startsWith("description", description);
+
+			KeysetWindow<Order> orders = KeysetWindow.fetch(orderRepository, filter, after, before, size, Order::getId);
+
+			String etag = ETags.of(orders, "full", representations.mediaType(request), //
+					Order::getId, Order::getVersion);
+
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			return ResponseEntity.ok().eTag(etag).body(assembler.toCollectionModel(orders));
+		});
+	}
 
-		List<EntityModel<Order>> orders = orderRepository.findAll().stream() //
-				.map(assembler::toModel) //
-				.collect(Collectors.toList());
+	/**
+	 * Sparse fieldset of the aggregate root, read through a projection instead of whole entities.
+	 */
+	@GetMapping(value = "/orders", params = "fields")
+	WebAsyncTask<ResponseEntity<?>> summaries(@RequestParam List<String> fields,
+			@RequestParam(required = false) Status status, @RequestParam(required = false) String description,
+			@RequestParam(required = false) Long after, @RequestParam(required = false) Long before,
+			@RequestParam(required = false) Integer size, WebRequest request) {
 
-		return CollectionModel.of(orders, //
-				linkTo(methodOn(OrderController.class).all()).withSelfRel());
+		return lists.submit(() -> {
+
+			if (!OrderSummary.isRequestedBy(fields)) {
+
+				return ResponseEntity //
+						.badRequest() //
+						.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
+						.body(Problem.create() //
+								.withTitle("Bad request") //
+								.withDetail("The supported fieldset is " + String.join(",", OrderSummary.FIELDS)));
+			}
+
+			Filter<Order> filter = new Filter<Order>() //
+					.equal("status", status) //
+					.startsWith("description", description);
+
+			KeysetWindow<OrderSummary> orders = KeysetWindow.fetch(orderRepository, filter, OrderSummary.class, //
+					after, before, size, OrderSummary::id);
+
+			String etag = ETags.of(orders, "fields", representations.mediaType(request), //
+					OrderSummary::id, OrderSummary::version);
+
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			return ResponseEntity.ok().eTag(etag).body(assembler.toSummaryCollectionModel(orders));
+		});
+	}
+
+	/**
+	 * Compact variant of the aggregate root for large lists: orders without links of their own. The links they would
+	 * carry are given once, as templates to expand their id into ({@code cancel} and {@code complete} only apply to
+	 * orders in progress).
+	 */
+	@GetMapping(value = "/orders", params = { "compact=true", "!fields" })
+	WebAsyncTask<ResponseEntity<CollectionModel<Order>>> compact(@RequestParam(required = false) Status status,
+			@RequestParam(required = false) String description, @RequestParam(required = false) Long after,
+			@RequestParam(required = false) Long before, @RequestParam(required = false) Integer size,
+			WebRequest request) {
+
+		return lists.submit(() -> {
+
+			Filter<Order> filter = new Filter<Order>() //
+					.equal("status", status) //
+					.startsWith("description", description);
+
+			KeysetWindow<Order> orders = KeysetWindow.fetch(orderRepository, filter, after, before, size, Order::getId);
+
+			String etag = ETags.of(orders, "compact", representations.mediaType(request), //
+					Order::getId, Order::getVersion);
+
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			return ResponseEntity.ok().eTag(etag).body(assembler.toCompactCollectionModel(orders));
+		});
+	}
+
+	@GetMapping(value = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	ResponseEntity<StreamingResponseBody> export() {
+
+		return ResponseEntity.ok() //
+				.contentType(MediaType.APPLICATION_NDJSON) //
+				.body(exporter.export(orderRepository::streamAllByOrderByIdAsc));
+	}
+
+	/**
+	 * Server-sent events for every order created or moved to another status from now on, instead of polling
+	 * {@code /orders/{id}}.
+	 */
+	@GetMapping(value = "/orders/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	SseEmitter events(@RequestParam(required = false) Long id, @RequestParam(required = false) Status status) {
+		return events.subscribe(id, status);
 	}
 
 	@GetMapping("/orders/{id}")
-	EntityModel<Order> one(@PathVariable Long id) {
+	ResponseEntity<?> one(@PathVariable Long id, WebRequest request) {
 
 		Order order = orderRepository.findById(id) //
 				.orElseThrow(() -> new OrderNotFoundException(id));
 
-		return assembler.toModel(order);
+		// Pollers that already have the current version get a 304 before any links are built or JSON is written
+
+		return representations.ok(Order.class, order.getId(), order.getVersion(), request,
+				() -> assembler.toModel(order));
 	}
 
 	@PostMapping("/orders")
-	ResponseEntity<EntityModel<Order>> newOrder(@RequestBody Order order) {
+	@Transactional
+	ResponseEntity<EntityModel<Order>> newOrder(@RequestBody Order order,
+			@RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+
+		// Retries carrying the same key get the order created the first time
+
+		Order newOrder = idempotentRequests.execute("/orders", idempotencyKey, order, Order.class, () -> {
 
-		order.setStatus(Status.IN_PROGRESS);
-		Order newOrder = orderRepository.save(order);
+			order.setId(null);
+			order.setStatus(Status.IN_PROGRESS);
+			Order created = orderRepository.save(order);
+			publisher.publishEvent(OrderStatusChanged.of(created));
+			return created;
+		});
 
 		return ResponseEntity //
-				.created(linkTo(methodOn(OrderController.class).one(newOrder.getId())).toUri()) //
+				.created(linkTo(methodOn(OrderController.class).one(newOrder.getId(), null)).toUri()) //
 				.body(assembler.toModel(newOrder));
 	}
 	// end::main[]
 
 	// tag::delete[]
 	@DeleteMapping("/orders/{id}/cancel")
+	@Transactional
 	ResponseEntity<?> cancel(@PathVariable Long id) {
 
-		Order order = orderRepository.findById(id) //
-				.orElseThrow(() -> new OrderNotFoundException(id));
+		// Check and update in a single statement, so only one of several racing transitions can win
 
-		if (order.getStatus() == Status.IN_PROGRESS) {
-			order.setStatus(Status.CANCELLED);
-			return ResponseEntity.ok(assembler.toModel(orderRepository.save(order)));
+		if (orderRepository.transition(id, Status.IN_PROGRESS, Status.CANCELLED) == 1) {
+			publisher.publishEvent(new OrderStatusChanged(id, Status.CANCELLED));
+			representations.evict(Order.class, id);
+			return ResponseEntity.ok(assembler.toModel(findOrder(id)));
 		}
 
+		Order order = findOrder(id);
+
 		return ResponseEntity //
 				.status(HttpStatus.METHOD_NOT_ALLOWED) //
 				.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
@@ -88,16 +234,19 @@ class OrderController {
 
 	// tag::complete[]
 	@PutMapping("/orders/{id}/complete")
+	@Transactional
 	ResponseEntity<?> complete(@PathVariable Long id) {
 
-		Order order = orderRepository.findById(id) //
-				.orElseThrow(() -> new OrderNotFoundException(id));
+		// Check and update in a single statement, so only one of several racing transitions can win
 
-		if (order.getStatus() == Status.IN_PROGRESS) {
-			order.setStatus(Status.COMPLETED);
-			return ResponseEntity.ok(assembler.toModel(orderRepository.save(order)));
+		if (orderRepository.transition(id, Status.IN_PROGRESS, Status.COMPLETED) == 1) {
+			publisher.publishEvent(new OrderStatusChanged(id, Status.COMPLETED));
+			representations.evict(Order.class, id);
+			return ResponseEntity.ok(assembler.toModel(findOrder(id)));
 		}
 
+		Order order = findOrder(id);
+
 		return ResponseEntity //
 				.status(HttpStatus.METHOD_NOT_ALLOWED) //
 				.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
@@ -106,4 +255,69 @@ class OrderController {
 						.withDetail("You can't complete an order that is in the " + order.getStatus() + " status"));
 	}
 	// end::complete[]
+
+	// Batches, written through JDBC batching rather than a round trip per order
+
+	@PostMapping("/orders/batch")
+	@Transactional
+	CollectionModel<EntityModel<Order>> newOrders(@RequestBody List<Order> orders) {
+
+		orders.forEach(order -> {
+			order.setId(null);
+			order.setStatus(Status.IN_PROGRESS);
+		});
+
+		List<Order> newOrders = orderRepository.saveAll(orders);
+		newOrders.forEach(order -> publisher.publishEvent(OrderStatusChanged.of(order)));
+
+		return assembler.toCollectionModel(newOrders);
+	}
+
+	@DeleteMapping("/orders/batch/cancel")
+	@Transactional
+	ResponseEntity<?> cancelAll(@RequestParam List<Long> ids) {
+
+		// A batch naming orders that don't exist is rejected as a whole, before any of the others is cancelled
+
+		Set<Long> known = new HashSet<>(orderRepository.findAllIds(ids));
+		List<Long> unknown = ids.stream().filter(id -> !known.contains(id)).distinct().toList();
+
+		if (!unknown.isEmpty()) {
+
+			return ResponseEntity //
+					.status(HttpStatus.NOT_FOUND) //
+					.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
+					.body(Problem.create() //
+							.withTitle("Not found") //
+							.withDetail("Could not find orders " + unknown.stream() //
+									.map(String::valueOf) //
+									.collect(Collectors.joining(", "))));
+		}
+
+		// Orders that are no longer in progress are left alone and come back in their current status. Locking the
+		// others first tells exactly which ones this request cancels.
+
+		List<Long> cancelled = orderRepository.lockAllInStatus(ids, Status.IN_PROGRESS);
+
+		if (!cancelled.isEmpty()) {
+			orderRepository.transitionAll(cancelled, Status.IN_PROGRESS, Status.CANCELLED);
+			cancelled.forEach(id -> publisher.publishEvent(new OrderStatusChanged(id, Status.CANCELLED)));
+			representations.evictAll(Order.class, cancelled);
+		}
+
+		// In the order they were asked for, not the one the database returns them in
+
+		Map<Long, Order> orders = orderRepository.findAllById(ids).stream() //
+				.collect(Collectors.toMap(Order::getId, Function.identity()));
+
+		return ResponseEntity.ok(assembler.toCollectionModel(ids.stream().distinct().map(orders::get).toList()));
+	}
+
+	// Read past the entity cache, it only sees the transition once the transaction commits
+
+	private Order findOrder(Long id) {
+
+		return orderRepository.findOrderById(id) //
+				.orElseThrow(() -> new OrderNotFoundException(id));
+	}
 }
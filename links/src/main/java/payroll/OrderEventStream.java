@@ -0,0 +1,218 @@
+package payroll;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans committed {@link OrderStatusChanged} events out to server-sent event subscribers. An open subscription only
+ * holds an async request, not a thread. Every subscriber gets a bounded buffer that is drained on a pool of its own
+ * ({@code payroll.events.threads}), so a slow client never holds up the others: once its buffer overflows, or a
+ * single send to it takes longer than {@code payroll.events.send-timeout}, it is disconnected, and it is expected to
+ * reconnect and re-read the orders it cares about.
+ * <p>
+ * A send blocked on a stalled socket keeps its thread until the container's write timeout fails it. The pool hands
+ * every drain a thread of its own rather than queueing it behind such sends, and a stalled subscriber is no longer
+ * drained once it has been dropped, so it ties up one thread at most. Deadlines are enforced by {@link #sweep()},
+ * which this component schedules itself rather than relying on another one to enable scheduling.
+ */
+@Component
+@EnableScheduling
+class OrderEventStream implements DisposableBean {
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final AtomicLong sequence = new AtomicLong();
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+	private final int bufferSize;
+	private final long sendTimeout;
+
+	OrderEventStream(@Value("${payroll.events.buffer-size:256}") int bufferSize,
+			@Value("${payroll.events.threads:32}") int threads,
+			@Value("${payroll.events.send-timeout:5s}") Duration sendTimeout) {
+
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(0);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setThreadNamePrefix("events-");
+		executor.initialize();
+
+		this.bufferSize = bufferSize;
+		this.sendTimeout = sendTimeout.toNanos();
+	}
+
+	/**
+	 * @param id only stream events of this order, {@literal null} for all of them
+	 * @param status only stream transitions into this status, {@literal null} for all of them
+	 */
+	SseEmitter subscribe(Long id, Status status) {
+
+		SseEmitter emitter = new SseEmitter();
+		Subscriber subscriber = new Subscriber(emitter, id, status, new ArrayBlockingQueue<>(bufferSize));
+
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+	// Rolled back changes never reach a client; changes made outside a transaction are streamed right away
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(OrderStatusChanged event) {
+
+		Message message = new Message(sequence.incrementAndGet(), event);
+
+		for (Subscriber subscriber : subscribers) {
+
+			if (!subscriber.accepts(event)) {
+				continue;
+			}
+
+			if (!subscriber.buffer().offer(message)) {
+				disconnect(subscriber);
+				continue;
+			}
+
+			startDraining(subscriber);
+		}
+	}
+
+	/**
+	 * Drops subscribers stuck in a send for longer than the deadline, and retries drains the pool had no thread for.
+	 */
+	@Scheduled(fixedDelayString = "PT1S")
+	void sweep() {
+
+		long now = System.nanoTime();
+
+		for (Subscriber subscriber : subscribers) {
+
+			long sendingSince = subscriber.sendingSince().get();
+
+			if (sendingSince != 0 && now - sendingSince > sendTimeout) {
+				disconnect(subscriber);
+			} else if (!subscriber.buffer().isEmpty()) {
+				startDraining(subscriber);
+			}
+		}
+	}
+
+	int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	// Every thread busy leaves the messages buffered, the next event or sweep tries again
+
+	private void startDraining(Subscriber subscriber) {
+
+		if (!subscriber.draining().compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			executor.execute(() -> drain(subscriber));
+		} catch (RejectedExecutionException e) {
+			subscriber.draining().set(false);
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+
+		do {
+
+			Message message;
+
+			while ((message = subscriber.buffer().poll()) != null) {
+
+				subscriber.sendingSince().set(System.nanoTime());
+
+				try {
+					subscriber.emitter().send(SseEmitter.event() //
+							.id(Long.toString(message.id())) //
+							.name("order") //
+							.data(message.event()));
+				} catch (IOException | IllegalStateException e) {
+					disconnect(subscriber);
+				} finally {
+					subscriber.sendingSince().set(0);
+				}
+
+				// Disconnected while sending, the emitter is no longer in use and can be completed here
+
+				if (!subscribers.contains(subscriber)) {
+					subscriber.emitter().complete();
+					return;
+				}
+			}
+
+			subscriber.draining().set(false);
+
+			if (!subscribers.contains(subscriber)) {
+
+				if (subscriber.draining().compareAndSet(false, true)) {
+					subscriber.emitter().complete();
+				}
+
+				return;
+			}
+
+			// Pick up anything offered between the last poll and releasing the flag
+
+		} while (!subscriber.buffer().isEmpty() && subscriber.draining().compareAndSet(false, true));
+	}
+
+	// A send stuck on a stalled client holds the emitter, so only a subscriber nobody drains is completed right away.
+	// Otherwise the drain completes it as soon as its send returns or fails.
+
+	private void disconnect(Subscriber subscriber) {
+
+		if (subscribers.remove(subscriber)) {
+
+			subscriber.buffer().clear();
+
+			if (subscriber.draining().compareAndSet(false, true)) {
+				subscriber.emitter().complete();
+			}
+		}
+	}
+
+	private record Message(long id, OrderStatusChanged event) {}
+
+	/**
+	 * @param sendingSince {@link System#nanoTime()} the send in progress started at, {@code 0} if there is none
+	 */
+	private record Subscriber(SseEmitter emitter, Long id, Status status, Queue<Message> buffer,
+			AtomicBoolean draining, AtomicLong sendingSince) {
+
+		Subscriber(SseEmitter emitter, Long id, Status status, Queue<Message> buffer) {
+			this(emitter, id, status, buffer, new AtomicBoolean(), new AtomicLong());
+		}
+
+		boolean accepts(OrderStatusChanged event) {
+			return (id == null || id.equals(event.id())) && (status == null || status == event.status());
+		}
+	}
+}
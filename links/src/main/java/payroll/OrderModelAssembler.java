@@ -2,29 +2,131 @@ package payroll;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
+import java.util.function.Function;
+
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.annotation.Timed;
+
 @Component
+@Timed(value = MetricsConfiguration.ASSEMBLER, histogram = true)
 class OrderModelAssembler implements RepresentationModelAssembler<Order, EntityModel<Order>> {
 
+	// Links are resolved through the controller mappings once, then only get the order id expanded into them
+
+	private final LinkTemplates<Templates> templates = new LinkTemplates<>(() -> new Templates( //
+			linkTo(methodOn(OrderController.class).one(null, null)).withSelfRel(),
+			linkTo(methodOn(OrderController.class).all(null, null, null, null, null, null)).withRel("orders"),
+			linkTo(methodOn(OrderController.class).summaries(OrderSummary.FIELDS, null, null, null, null, null, null))
+					.withRel("orders"),
+			linkTo(methodOn(OrderController.class).compact(null, null, null, null, null, null)).withRel("orders"),
+			linkTo(methodOn(OrderController.class).cancel(null)).withRel("cancel"),
+			linkTo(methodOn(OrderController.class).complete(null)).withRel("complete")));
+
+	private final ParallelAssembly assembly;
+
+	OrderModelAssembler(ParallelAssembly assembly) {
+		this.assembly = assembly;
+	}
+
 	@Override
 	public EntityModel<Order> toModel(Order order) {
+		return toModel(order, templates.get());
+	}
+
+	@Override
+	public CollectionModel<EntityModel<Order>> toCollectionModel(Iterable<? extends Order> orders) {
+		return toCollectionModel(orders, templates.get());
+	}
+
+	CollectionModel<EntityModel<Order>> toCollectionModel(KeysetWindow<Order> window) {
+
+		Templates resolved = templates.get();
+		return toCollectionModel(window, resolved.orders(), order -> toModel(order, resolved));
+	}
+
+	/**
+	 * Sparse variant of {@link #toCollectionModel(KeysetWindow)}, whose self and cursor links keep the fieldset.
+	 */
+	CollectionModel<EntityModel<OrderSummary>> toSummaryCollectionModel(KeysetWindow<OrderSummary> window) {
+
+		Templates resolved = templates.get();
+		return toCollectionModel(window, resolved.summaries(), //
+				order -> toModel(order, order.id(), order.status(), resolved));
+	}
+
+	/**
+	 * Compact variant of {@link #toCollectionModel(KeysetWindow)}: the orders go without links, the collection carries
+	 * the templates of their links instead.
+	 */
+	CollectionModel<Order> toCompactCollectionModel(KeysetWindow<Order> window) {
+
+		Templates resolved = templates.get();
+
+		CollectionModel<Order> orders = CollectionModel.of(window.getContent());
+		addWindowLinks(orders, window, resolved.compact());
+		orders.add(resolved.self().withRel(IanaLinkRelations.ITEM), resolved.orders(), resolved.cancel(),
+				resolved.complete());
+
+		return orders;
+	}
+
+	private <T> CollectionModel<EntityModel<T>> toCollectionModel(KeysetWindow<T> window, Link root,
+			Function<T, EntityModel<T>> toModel) {
+
+		CollectionModel<EntityModel<T>> orders = CollectionModel.of(assembly.map(window.getContent(), toModel));
+		addWindowLinks(orders, window, root);
+
+		return orders;
+	}
+
+	private static void addWindowLinks(CollectionModel<?> orders, KeysetWindow<?> window, Link root) {
+
+		orders.add(root.withSelfRel().expand(window.getParameters()));
+
+		// Cursor links to the neighbouring windows, only when there is one
+
+		if (window.getPreviousCursor() != null) {
+			orders.add(root.withRel(IanaLinkRelations.PREV).expand(window.getPreviousParameters()));
+		}
+
+		if (window.getNextCursor() != null) {
+			orders.add(root.withRel(IanaLinkRelations.NEXT).expand(window.getNextParameters()));
+		}
+	}
+
+	private CollectionModel<EntityModel<Order>> toCollectionModel(Iterable<? extends Order> orders,
+			Templates templates) {
+
+		return CollectionModel.of(assembly.map(orders, order -> toModel(order, templates)));
+	}
+
+	private EntityModel<Order> toModel(Order order, Templates templates) {
+		return toModel(order, order.getId(), order.getStatus(), templates);
+	}
+
+	private <T> EntityModel<T> toModel(T order, Long id, Status status, Templates templates) {
 
 		// Unconditional links to single-item resource and aggregate root
 
-		EntityModel<Order> orderModel = EntityModel.of(order,
-				linkTo(methodOn(OrderController.class).one(order.getId())).withSelfRel(),
-				linkTo(methodOn(OrderController.class).all()).withRel("orders"));
+		EntityModel<T> orderModel = EntityModel.of(order, //
+				templates.self().expand(id), //
+				templates.orders());
 
 		// Conditional links based on state of the order
 
-		if (order.getStatus() == Status.IN_PROGRESS) {
-			orderModel.add(linkTo(methodOn(OrderController.class).cancel(order.getId())).withRel("cancel"));
-			orderModel.add(linkTo(methodOn(OrderController.class).complete(order.getId())).withRel("complete"));
+		if (status == Status.IN_PROGRESS) {
+			orderModel.add(templates.cancel().expand(id));
+			orderModel.add(templates.complete().expand(id));
 		}
 
 		return orderModel;
 	}
+
+	private record Templates(Link self, Link orders, Link summaries, Link compact, Link cancel, Link complete) {}
 }
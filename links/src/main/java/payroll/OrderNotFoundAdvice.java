@@ -0,0 +1,27 @@
+package payroll;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RestControllerAdvice
+class OrderNotFoundAdvice {
+
+	private final Counter notFound;
+
+	OrderNotFoundAdvice(MeterRegistry meterRegistry) {
+		this.notFound = meterRegistry.counter("payroll.not.found", "resource", "order");
+	}
+
+	@ExceptionHandler(OrderNotFoundException.class)
+	@ResponseStatus(HttpStatus.NOT_FOUND)
+	String orderNotFoundHandler(OrderNotFoundException ex) {
+
+		notFound.increment();
+		return ex.getMessage();
+	}
+}
@@ -1,7 +1,84 @@
 package payroll;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.hibernate.jpa.HibernateHints;
+
+interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+
+	// Entity cache, only active with payroll.cache.enabled (see EntityCacheConfiguration)
+
+	@Override
+	@Cacheable(cacheNames = EntityCacheConfiguration.ORDERS, key = "#p0", unless = "#result == null")
+	Optional<Order> findById(Long id);
+
+	/**
+	 * Bypasses the entity cache, for reading back an order changed in the current transaction.
+	 */
+	Optional<Order> findOrderById(Long id);
+
+	@Override
+	@CachePut(cacheNames = EntityCacheConfiguration.ORDERS, key = "#result.id")
+	<S extends Order> S save(S entity);
+
+	@Override
+	@CacheEvict(cacheNames = EntityCacheConfiguration.ORDERS, allEntries = true)
+	<S extends Order> List<S> saveAll(Iterable<S> entities);
+
+	@Override
+	@CacheEvict(cacheNames = EntityCacheConfiguration.ORDERS, key = "#p0")
+	void deleteById(Long id);
+
+	/**
+	 * Move an order from one status to another, but only if it is still in the expected one.
+	 *
+	 * @return the number of orders updated, {@literal 0} if the order does not exist or is in another status
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@CacheEvict(cacheNames = EntityCacheConfiguration.ORDERS, key = "#p0")
+	@Query("update Order o set o.status = :to, o.version = o.version + 1 where o.id = :id and o.status = :from")
+	int transition(Long id, Status from, Status to);
+
+	/**
+	 * @return the ids of those of the given orders that exist
+	 */
+	@Query("select o.id from Order o where o.id in :ids")
+	List<Long> findAllIds(Collection<Long> ids);
+
+	/**
+	 * Lock those of the given orders that are in the given status until the end of the current transaction.
+	 *
+	 * @return the ids of the locked orders, which no one else can move to another status in the meantime
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select o.id from Order o where o.id in :ids and o.status = :status")
+	List<Long> lockAllInStatus(Collection<Long> ids, Status status);
 
-interface OrderRepository extends JpaRepository<Order, Long> {
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@CacheEvict(cacheNames = EntityCacheConfiguration.ORDERS, allEntries = true)
+	@Query("update Order o set o.status = :to, o.version = o.version + 1 where o.id in :ids and o.status = :from")
+	int transitionAll(Collection<Long> ids, Status from, Status to);
 
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + NdjsonExporter.FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<Order> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,11 @@
+package payroll;
+
+/**
+ * Published whenever an order is created or moves to another {@link Status}, within the transaction that does so.
+ */
+record OrderStatusChanged(Long id, Status status) {
+
+	static OrderStatusChanged of(Order order) {
+		return new OrderStatusChanged(order.getId(), order.getStatus());
+	}
+}
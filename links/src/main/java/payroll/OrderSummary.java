@@ -0,0 +1,26 @@
+package payroll;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.hateoas.server.core.Relation;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Projection of an {@link Order} for {@code ?fields=id,status}: only these columns are read, yet it still carries the
+ * status the state-dependent links are derived from. Embedded under the same relation as full orders.
+ */
+@Relation(collectionRelation = "orderList")
+record OrderSummary(Long id, Status status, @JsonIgnore Long version) {
+
+	static final List<String> FIELDS = List.of("id", "status");
+
+	/**
+	 * Whether {@code fields} asks for exactly the fields of this projection, in any order. Anything else can't be
+	 * answered with it.
+	 */
+	static boolean isRequestedBy(List<String> fields) {
+		return Set.copyOf(fields).equals(Set.copyOf(FIELDS));
+	}
+}
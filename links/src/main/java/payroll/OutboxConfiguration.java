@@ -0,0 +1,51 @@
+package payroll;
+
+import java.nio.file.Path;
+import java.time.Clock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Fallback;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wires the order event outbox. Batch size and the interval the outbox is polled at come from
+ * {@code payroll.outbox.batch-size} and {@code payroll.outbox.flush-interval}. Events go to the file named by
+ * {@code payroll.outbox.file} if set, to any other {@link OutboxSink} bean declared, or else to the log.
+ */
+@Configuration
+@EnableScheduling
+class OutboxConfiguration {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxConfiguration.class);
+
+	@Bean
+	OutboxDispatcher outboxDispatcher(OutboxRepository repository, OutboxSink sink,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+			@Value("${payroll.outbox.batch-size}") int batchSize) {
+		return new OutboxDispatcher(repository, sink, transactionManager, meterRegistry, Clock.systemUTC(), batchSize);
+	}
+
+	@Bean
+	@ConditionalOnProperty("payroll.outbox.file")
+	OutboxSink fileOutboxSink(@Value("${payroll.outbox.file}") Path file, ObjectMapper objectMapper) {
+		return new FileOutboxSink(file, objectMapper);
+	}
+
+	// A fallback rather than a condition, which could only see sinks declared in configurations processed before this one
+
+	@Bean
+	@Fallback
+	OutboxSink logOutboxSink() {
+		return events -> events.forEach(event -> log.info("Delivered " + event));
+	}
+}
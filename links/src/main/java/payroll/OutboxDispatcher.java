@@ -0,0 +1,125 @@
+package payroll;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records every {@link OrderStatusChanged} in the outbox as part of the transaction that changes the order, and drains
+ * the outbox to the {@link OutboxSink} in the background, so requests never wait on downstream systems.
+ * <p>
+ * Each batch is delivered and removed from the outbox in one transaction: a batch the sink rejects stays in place and
+ * is retried on the next flush. Publishes {@code payroll.outbox.lag} (time from change to delivery),
+ * {@code payroll.outbox.oldest} (age of the oldest undelivered event) and delivery counters.
+ */
+class OutboxDispatcher {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+	private final OutboxRepository repository;
+	private final OutboxSink sink;
+	private final TransactionTemplate transactionTemplate;
+	private final Clock clock;
+	private final int batchSize;
+
+	private final AtomicReference<Instant> oldestPending = new AtomicReference<>();
+	private final Timer lag;
+	private final Counter delivered;
+	private final Counter failures;
+
+	OutboxDispatcher(OutboxRepository repository, OutboxSink sink, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry, Clock clock, int batchSize) {
+
+		this.repository = repository;
+		this.sink = sink;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.clock = clock;
+		this.batchSize = batchSize;
+
+		this.lag = Timer.builder("payroll.outbox.lag") //
+				.description("Time from an order changing status to the change being delivered") //
+				.publishPercentiles(0.5, 0.99) //
+				.register(meterRegistry);
+		this.delivered = meterRegistry.counter("payroll.outbox.delivered");
+		this.failures = meterRegistry.counter("payroll.outbox.failures");
+
+		TimeGauge.builder("payroll.outbox.oldest", this, TimeUnit.MILLISECONDS, OutboxDispatcher::oldestPendingAge) //
+				.description("Age of the oldest event not delivered yet") //
+				.register(meterRegistry);
+	}
+
+	// Joins the transaction that changed the order, so the event is recorded if and only if the change is
+
+	@EventListener
+	@Transactional(propagation = Propagation.MANDATORY)
+	void on(OrderStatusChanged event) {
+		repository.save(new OutboxEvent(event, clock.instant()));
+	}
+
+	@Scheduled(fixedDelayString = "${payroll.outbox.flush-interval}")
+	void flush() {
+
+		try {
+
+			int count;
+
+			do {
+				count = transactionTemplate.execute(status -> deliverBatch());
+			} while (count == batchSize);
+
+		} catch (RuntimeException e) {
+
+			failures.increment();
+			log.warn("Failed to deliver order events, retrying in the next flush", e);
+		}
+
+		oldestPending.set(repository.findFirstByOrderByIdAsc().map(OutboxEvent::getOccurredAt).orElse(null));
+	}
+
+	private int deliverBatch() {
+
+		List<OutboxEvent> batch = repository.findAllByOrderByIdAsc(Limit.of(batchSize));
+
+		if (batch.isEmpty()) {
+			return 0;
+		}
+
+		try {
+			sink.publish(batch);
+		} catch (Exception e) {
+			throw new IllegalStateException("Sink rejected " + batch.size() + " events", e);
+		}
+
+		repository.deleteAllInBatch(batch);
+
+		Instant now = clock.instant();
+		batch.forEach(event -> lag.record(Duration.between(event.getOccurredAt(), now)));
+		delivered.increment(batch.size());
+
+		return batch.size();
+	}
+
+	private double oldestPendingAge() {
+
+		Instant oldest = oldestPending.get();
+		return oldest == null ? 0 : Duration.between(oldest, clock.instant()).toMillis();
+	}
+}
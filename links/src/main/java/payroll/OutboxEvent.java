@@ -0,0 +1,68 @@
+package payroll;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * An {@link OrderStatusChanged} event recorded in the same transaction as the change itself, waiting to be delivered
+ * by the {@link OutboxDispatcher}. The id orders events and lets sinks recognize redeliveries.
+ */
+@Entity
+@Table(name = "ORDER_OUTBOX")
+class OutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+	@SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+	private Long id;
+
+	private Long orderId;
+
+	@Enumerated(EnumType.STRING)
+	@JdbcTypeCode(SqlTypes.ENUM)
+	private Status status;
+
+	private Instant occurredAt;
+
+	OutboxEvent() {}
+
+	OutboxEvent(OrderStatusChanged event, Instant occurredAt) {
+
+		this.orderId = event.id();
+		this.status = event.status();
+		this.occurredAt = occurredAt;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public Long getOrderId() {
+		return this.orderId;
+	}
+
+	public Status getStatus() {
+		return this.status;
+	}
+
+	public Instant getOccurredAt() {
+		return this.occurredAt;
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxEvent{" + "id=" + this.id + ", orderId=" + this.orderId + ", status=" + this.status
+				+ ", occurredAt=" + this.occurredAt + '}';
+	}
+}
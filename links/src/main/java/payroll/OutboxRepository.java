@@ -0,0 +1,28 @@
+package payroll;
+
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import org.hibernate.cfg.AvailableSettings;
+
+interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+	/**
+	 * Lock the oldest pending events until the end of the current transaction. On databases supporting
+	 * {@code SKIP LOCKED}, events another dispatcher has already locked are skipped rather than waited for, so several
+	 * nodes can drain the outbox side by side.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+	List<OutboxEvent> findAllByOrderByIdAsc(Limit limit);
+
+	Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
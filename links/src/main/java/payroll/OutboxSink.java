@@ -0,0 +1,13 @@
+package payroll;
+
+import java.util.List;
+
+/**
+ * Where the {@link OutboxDispatcher} delivers order lifecycle events to, e.g. a message broker or billing's API.
+ * Delivery is at least once: if {@link #publish(List)} throws, or the dispatcher fails to remove the batch from the
+ * outbox afterwards, the whole batch is delivered again, so sinks must tolerate events they have already seen.
+ */
+interface OutboxSink {
+
+	void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,112 @@
+package payroll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Maps the items of a collection to their models, in chunks on a fork-join pool of its own for collections of more
+ * than {@code payroll.assembly.parallel-threshold} items, on the calling thread for smaller ones or if
+ * {@code payroll.assembly.parallelism} leaves a single thread. Models come back in the order of the items either way.
+ * <p>
+ * Assemblers resolve their link templates before they get here, so workers only expand ids into them. The request
+ * bound to the calling thread is still bound to the workers while they run one of its chunks, so a {@code linkTo}
+ * there builds the same links it would on the calling thread.
+ */
+@Component
+class ParallelAssembly implements DisposableBean {
+
+	private final int threshold;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param threshold size from which on a collection is split up
+	 * @param parallelism threads to split it up over, including the calling one, {@code 0} for one per processor
+	 */
+	ParallelAssembly(@Value("${payroll.assembly.parallel-threshold}") int threshold,
+			@Value("${payroll.assembly.parallelism}") int parallelism) {
+
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+		this.threshold = Math.max(1, threshold);
+		this.pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+	}
+
+	/**
+	 * For callers outside the application context, such as benchmarks.
+	 */
+	static ParallelAssembly sequential() {
+		return new ParallelAssembly(Integer.MAX_VALUE, 1);
+	}
+
+	<T, R> List<R> map(Iterable<? extends T> items, Function<? super T, ? extends R> toModel) {
+
+		List<? extends T> list = items instanceof List<? extends T> given ? given : toList(items);
+
+		if (pool == null || list.size() <= threshold) {
+			return mapAll(list, toModel);
+		}
+
+		// Chunks of at least threshold / 2 items, one per thread at most, the first one for the calling thread
+
+		int chunks = Math.min(pool.getParallelism() + 1, (2 * list.size() + threshold - 1) / threshold);
+		int chunkSize = (list.size() + chunks - 1) / chunks;
+		RequestAttributes request = RequestContextHolder.getRequestAttributes();
+
+		List<ForkJoinTask<List<R>>> tasks = new ArrayList<>(chunks - 1);
+
+		for (int start = chunkSize; start < list.size(); start += chunkSize) {
+
+			List<? extends T> chunk = list.subList(start, Math.min(start + chunkSize, list.size()));
+			tasks.add(pool.submit(() -> mapAll(chunk, toModel, request)));
+		}
+
+		List<R> models = new ArrayList<>(list.size());
+		models.addAll(mapAll(list.subList(0, chunkSize), toModel));
+		tasks.forEach(task -> models.addAll(task.join()));
+
+		return models;
+	}
+
+	@Override
+	public void destroy() {
+
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	private static <T, R> List<R> mapAll(List<? extends T> items, Function<? super T, ? extends R> toModel,
+			RequestAttributes request) {
+
+		RequestContextHolder.setRequestAttributes(request);
+
+		try {
+			return mapAll(items, toModel);
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	private static <T, R> List<R> mapAll(List<? extends T> items, Function<? super T, ? extends R> toModel) {
+
+		List<R> models = new ArrayList<>(items.size());
+		items.forEach(item -> models.add(toModel.apply(item)));
+		return models;
+	}
+
+	private static <T> List<T> toList(Iterable<? extends T> items) {
+
+		List<T> list = new ArrayList<>();
+		items.forEach(list::add);
+		return list;
+	}
+}
@@ -2,8 +2,10 @@ package payroll;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(PayrollRuntimeHints.class)
 public class PayrollApplication {
 
 	public static void main(String... args) {
@@ -0,0 +1,29 @@
+package payroll;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What a native image needs beyond what Spring AOT works out by itself. The {@code methodOn} proxies for the
+ * controllers and their return types, and the entities they return, are registered by Spring HATEOAS. Left are the
+ * summaries, which {@code ?fields=} handlers return as {@code ResponseEntity<?>} and Spring Data instantiates by
+ * constructor, the event payloads written as JSON outside any handler, and the seed files read from the classpath.
+ */
+class PayrollRuntimeHints implements RuntimeHintsRegistrar {
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+
+		BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+		bindings.registerReflectionHints(hints.reflection(), OrderSummary.class, EmployeeSummary.class,
+				OrderStatusChanged.class, OutboxEvent.class);
+
+		hints.reflection() //
+				.registerType(OrderSummary.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS) //
+				.registerType(EmployeeSummary.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+		hints.resources().registerPattern("seed/*");
+	}
+}
@@ -0,0 +1,212 @@
+package payroll;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Single items as already encoded response bodies, so a hit on a hot {@code /orders/{id}} or {@code /employees/{id}}
+ * is a byte array write instead of link assembly and serialization. Per type and id it holds the version the
+ * bodies were rendered from, and one body per {@code Accept} header and base URI (links are absolute). Another
+ * version is a miss, so a body is never served for a row that has changed since, whether or not the mutation
+ * handlers have evicted it yet.
+ * <p>
+ * Bounded by the total size of the bodies ({@code payroll.representation-cache.max-size}), Caffeine's W-TinyLFU
+ * policy keeps the hot items. Hits and misses are published as {@code cache.*} metrics of {@value #NAME}.
+ */
+@Component
+class RepresentationCache {
+
+	static final String NAME = "representations";
+
+	private final Cache<Key, Entry> entries;
+	private final ContentNegotiationManager contentNegotiationManager;
+	private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+	RepresentationCache(@Value("${payroll.representation-cache.max-size}") DataSize maxSize,
+			ContentNegotiationManager mvcContentNegotiationManager,
+			ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter, MeterRegistry meterRegistry) {
+
+		this.entries = Caffeine.newBuilder() //
+				.maximumWeight(maxSize.toBytes()) //
+				.weigher((Key key, Entry entry) -> entry.size()) //
+				.recordStats() //
+				.build();
+		this.contentNegotiationManager = mvcContentNegotiationManager;
+		this.handlerAdapter = handlerAdapter;
+
+		CaffeineCacheMetrics.monitor(meterRegistry, entries, NAME);
+	}
+
+	/**
+	 * A {@code 200 OK} with the cached body for the given version of an item, rendering {@code model} on a miss, or
+	 * {@literal null} once the request has been answered with a {@code 304 Not Modified}. The entity tag is that of
+	 * the version in the negotiated media type, so the HAL JSON, CBOR and Smile bodies of a row never validate one
+	 * another. Falls back to the unrendered model, and with it to the usual content negotiation, if no converter can
+	 * produce what the request accepts.
+	 */
+	ResponseEntity<?> ok(Class<?> type, Long id, Long version, WebRequest request, Supplier<?> model) {
+
+		Choice choice = negotiate((NativeWebRequest) request);
+		String etag = ETags.of(id, version, choice != null ? choice.contentType() : null);
+
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+
+		if (choice == null) {
+			return ResponseEntity.ok().eTag(etag).body(model.get());
+		}
+
+		Key key = new Key(type, id);
+		Variant variant = new Variant(request.getHeader(HttpHeaders.ACCEPT),
+				ServletUriComponentsBuilder.fromCurrentContextPath().toUriString());
+
+		Entry entry = entries.getIfPresent(key);
+		Body body = entry != null && entry.version().equals(version) ? entry.bodies().get(variant) : null;
+
+		if (body == null) {
+
+			body = write(choice.converter(), model.get(), choice.contentType());
+
+			Entry rendered = new Entry(version, Map.of(variant, body));
+			entries.asMap().merge(key, rendered, (existing, added) -> existing.merge(added));
+		}
+
+		return ResponseEntity.ok().eTag(etag).contentType(body.contentType()).body(body.content());
+	}
+
+	/**
+	 * The media type a list is going to be rendered in for the request, {@literal null} if none of the converters can
+	 * produce what it accepts. For tags of lists, which aren't cached here.
+	 */
+	MediaType mediaType(WebRequest request) {
+
+		Choice choice = negotiate((NativeWebRequest) request);
+		return choice != null ? choice.contentType() : null;
+	}
+
+	void evict(Class<?> type, Long id) {
+		entries.invalidate(new Key(type, id));
+	}
+
+	void evictAll(Class<?> type, Iterable<Long> ids) {
+		ids.forEach(id -> evict(type, id));
+	}
+
+	// The first converter and media type the request accepts, the same choice Spring MVC makes for the model. Items
+	// and lists are always rendered as representation models, so this is known before the model is assembled.
+
+	@SuppressWarnings("unchecked")
+	private Choice negotiate(NativeWebRequest request) {
+
+		List<MediaType> acceptable;
+
+		try {
+			acceptable = contentNegotiationManager.resolveMediaTypes(request);
+		} catch (HttpMediaTypeNotAcceptableException e) {
+			return null;
+		}
+
+		for (MediaType accepted : acceptable) {
+			for (HttpMessageConverter<?> converter : handlerAdapter.getObject().getMessageConverters()) {
+
+				if (!converter.canWrite(RepresentationModel.class, null)) {
+					continue;
+				}
+
+				for (MediaType producible : converter.getSupportedMediaTypes(RepresentationModel.class)) {
+
+					MediaType contentType = producible.isConcrete() ? producible : accepted;
+
+					if (accepted.isCompatibleWith(producible) && contentType.isConcrete()) {
+						return new Choice((HttpMessageConverter<Object>) converter, contentType);
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static Body write(HttpMessageConverter<Object> converter, Object content, MediaType contentType) {
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		HttpHeaders headers = new HttpHeaders();
+
+		try {
+			converter.write(content, contentType, new HttpOutputMessage() {
+
+				@Override
+				public OutputStream getBody() {
+					return body;
+				}
+
+				@Override
+				public HttpHeaders getHeaders() {
+					return headers;
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return new Body(headers.getContentType() != null ? headers.getContentType() : contentType, body.toByteArray());
+	}
+
+	private record Choice(HttpMessageConverter<Object> converter, MediaType contentType) {}
+
+	private record Key(Class<?> type, Long id) {}
+
+	private record Variant(String accept, String baseUri) {}
+
+	private record Body(MediaType contentType, byte[] content) {}
+
+	private record Entry(Long version, Map<Variant, Body> bodies) {
+
+		int size() {
+			return bodies.values().stream().mapToInt(body -> body.content().length).sum();
+		}
+
+		// Bodies of the same version are pooled, an entry of a newer version replaces an older one
+
+		Entry merge(Entry other) {
+
+			if (!version.equals(other.version())) {
+				return version > other.version() ? this : other;
+			}
+
+			Map<Variant, Body> merged = new HashMap<>(bodies);
+			merged.putAll(other.bodies());
+			return new Entry(version, merged);
+		}
+	}
+}
@@ -13,8 +13,9 @@ class RootController {
 	RepresentationModel<?> index() {
 
 		RepresentationModel<?> rootModel = new RepresentationModel<>();
-		rootModel.add(linkTo(methodOn(EmployeeController.class).all()).withRel("employees"));
-		rootModel.add(linkTo(methodOn(OrderController.class).all()).withRel("orders"));
+		rootModel.add(
+				linkTo(methodOn(EmployeeController.class).all(null, null, null, null, null, null)).withRel("employees"));
+		rootModel.add(linkTo(methodOn(OrderController.class).all(null, null, null, null, null, null)).withRel("orders"));
 		return rootModel;
 	}
 
@@ -0,0 +1,44 @@
+package payroll;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers the {@link ThrottlingFilter} unless {@code payroll.throttling.enabled=false}. Budgets per client come from
+ * {@code payroll.throttling.list.*} for the collection resources and {@code payroll.throttling.item.*} for single
+ * items and changes, the bounds of the concurrency limit from {@code payroll.throttling.concurrency.*}. Clients
+ * sending one of the keys listed in {@code payroll.throttling.api-keys} get buckets of that key, all others buckets of
+ * their address. Behind a proxy that address is the one Tomcat takes from {@code X-Forwarded-For}, see
+ * {@code server.forward-headers-strategy} in {@code application.properties}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payroll.throttling.enabled", havingValue = "true", matchIfMissing = true)
+class ThrottlingConfiguration {
+
+	@Bean
+	ThrottlingFilter throttlingFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${payroll.throttling.list.capacity}") int listCapacity,
+			@Value("${payroll.throttling.list.refill-per-second}") int listRefill,
+			@Value("${payroll.throttling.item.capacity}") int itemCapacity,
+			@Value("${payroll.throttling.item.refill-per-second}") int itemRefill,
+			@Value("${payroll.throttling.api-keys:}") Set<String> apiKeys,
+			@Value("${payroll.throttling.concurrency.initial-limit}") int initialLimit,
+			@Value("${payroll.throttling.concurrency.min-limit}") int minLimit,
+			@Value("${payroll.throttling.concurrency.max-limit}") int maxLimit) {
+
+		return new ThrottlingFilter( //
+				new ThrottlingFilter.Budget("list", listCapacity, listRefill), //
+				new ThrottlingFilter.Budget("item", itemCapacity, itemRefill), //
+				apiKeys, //
+				new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit), //
+				objectMapper, meterRegistry);
+	}
+}
@@ -0,0 +1,213 @@
+package payroll;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Turns requests away before they reach the controllers, in two stages:
+ * <ol>
+ * <li>every client, identified by its {@value #API_KEY} header if that is one of the configured keys or else by its
+ * address, gets a token bucket for the expensive collection resources and another one for everything else, so one
+ * client hammering {@code /orders} can't starve the rest ({@code 429 Too Many Requests}). Unknown keys are ignored,
+ * a client can't get fresh buckets by making keys up.</li>
+ * <li>the requests of all clients together are held to an {@link AdaptiveConcurrencyLimit}
+ * ({@code 503 Service Unavailable})</li>
+ * </ol>
+ * Rejections are counted as {@code payroll.throttled} by reason and budget. Requests the application sends to itself
+ * carry the {@link #getInternalKey() internal key} and are let through unthrottled.
+ */
+class ThrottlingFilter extends OncePerRequestFilter {
+
+	static final String API_KEY = "X-API-Key";
+
+	private final Budget list;
+	private final Budget item;
+	private final Set<String> apiKeys;
+	private final String internalKey = UUID.randomUUID().toString();
+	private final AdaptiveConcurrencyLimit concurrencyLimit;
+	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+
+	private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder() //
+			.maximumSize(100_000) //
+			.expireAfterAccess(Duration.ofMinutes(10)) //
+			.build();
+
+	ThrottlingFilter(Budget list, Budget item, Set<String> apiKeys, AdaptiveConcurrencyLimit concurrencyLimit,
+			ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+
+		this.list = list;
+		this.item = item;
+		this.apiKeys = Set.copyOf(apiKeys);
+		this.concurrencyLimit = concurrencyLimit;
+		this.objectMapper = objectMapper;
+		this.meterRegistry = meterRegistry;
+
+		Gauge.builder("payroll.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+				.register(meterRegistry);
+		Gauge.builder("payroll.concurrency.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * The {@value #API_KEY} of requests the application sends itself, such as the {@link WarmUp}. It is made up anew on
+	 * every start and never leaves the process.
+	 */
+	String getInternalKey() {
+		return internalKey;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return request.getRequestURI().startsWith("/actuator/") || internalKey.equals(request.getHeader(API_KEY));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		Budget budget = isCollection(request) ? list : item;
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(budget.name() + " " + client(request), key -> budget.newBucket(now));
+
+		if (!bucket.tryTake(now)) {
+
+			reject(response, HttpStatus.TOO_MANY_REQUESTS, budget, bucket.secondsUntilRefill(), "Too many requests",
+					"Request rate for " + budget.name() + " resources exceeded");
+			return;
+		}
+
+		int inFlight = concurrencyLimit.tryAcquire();
+
+		if (inFlight < 0) {
+
+			reject(response, HttpStatus.SERVICE_UNAVAILABLE, budget, 1, "Service unavailable",
+					"Too many requests in progress");
+			return;
+		}
+
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			release(request, now, inFlight);
+		}
+	}
+
+	// A handler that went async has only just started. List requests running on ListRequests are released once they are
+	// answered, so the limit sees how long their scans really took. Streams stay open for as long as the client reads,
+	// which says nothing about the application's latency, so they are released right away without a sample.
+
+	private void release(HttpServletRequest request, long start, int inFlight) {
+
+		if (!request.isAsyncStarted()) {
+			concurrencyLimit.release(System.nanoTime() - start, inFlight);
+		} else if (request.getAttribute(ListRequests.SUBMITTED) == null) {
+			concurrencyLimit.release();
+		} else {
+			request.getAsyncContext().addListener(new ReleasingListener(start, inFlight));
+		}
+	}
+
+	private static boolean isCollection(HttpServletRequest request) {
+
+		String uri = request.getRequestURI();
+		return HttpMethod.GET.matches(request.getMethod()) && (uri.equals("/employees") || uri.equals("/orders"));
+	}
+
+	private String client(HttpServletRequest request) {
+
+		String apiKey = request.getHeader(API_KEY);
+		return apiKey != null && apiKeys.contains(apiKey) ? "key " + apiKey : request.getRemoteAddr();
+	}
+
+	private void reject(HttpServletResponse response, HttpStatus status, Budget budget, long retryAfterSeconds,
+			String title, String detail) throws IOException {
+
+		meterRegistry.counter("payroll.throttled", //
+				"reason", status == HttpStatus.TOO_MANY_REQUESTS ? "rate" : "concurrency", //
+				"budget", budget.name()).increment();
+
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE);
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+
+		objectMapper.writeValue(response.getOutputStream(), Problem.create() //
+				.withTitle(title) //
+				.withDetail(detail));
+	}
+
+	/**
+	 * Releases an async request once, however it ends.
+	 */
+	private class ReleasingListener implements AsyncListener {
+
+		private final AtomicBoolean released = new AtomicBoolean();
+		private final long start;
+		private final int inFlight;
+
+		ReleasingListener(long start, int inFlight) {
+
+			this.start = start;
+			this.inFlight = inFlight;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {}
+
+		private void release() {
+
+			if (released.compareAndSet(false, true)) {
+				concurrencyLimit.release(System.nanoTime() - start, inFlight);
+			}
+		}
+	}
+
+	/**
+	 * Burst size and sustained rate a single client gets for one kind of resource.
+	 */
+	record Budget(String name, int capacity, int refillPerSecond) {
+
+		TokenBucket newBucket(long now) {
+			return new TokenBucket(capacity, refillPerSecond, now);
+		}
+	}
+}
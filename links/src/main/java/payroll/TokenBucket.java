@@ -0,0 +1,45 @@
+package payroll;
+
+/**
+ * Allows bursts of up to {@code capacity} requests, refilled at a steady rate of {@code refillPerSecond}.
+ */
+final class TokenBucket {
+
+	private final double capacity;
+	private final double refillPerNano;
+
+	private double tokens;
+	private long refilledAt;
+
+	TokenBucket(int capacity, int refillPerSecond, long now) {
+
+		this.capacity = capacity;
+		this.refillPerNano = refillPerSecond / 1e9;
+		this.tokens = capacity;
+		this.refilledAt = now;
+	}
+
+	/**
+	 * @param now {@link System#nanoTime()}
+	 * @return whether a token was available and taken
+	 */
+	synchronized boolean tryTake(long now) {
+
+		tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+		refilledAt = now;
+
+		if (tokens < 1) {
+			return false;
+		}
+
+		tokens--;
+		return true;
+	}
+
+	/**
+	 * @return whole seconds until the next token is available
+	 */
+	synchronized long secondsUntilRefill() {
+		return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano / 1e9));
+	}
+}
@@ -0,0 +1,119 @@
+package payroll;
+
+import java.util.List;
+
+import org.crac.CheckpointException;
+import org.crac.Core;
+import org.crac.RestoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Sends {@code payroll.warm-up.iterations} rounds of the read requests of {@link EmployeeController} and
+ * {@link OrderController} through the server once the application is ready, so the JIT has compiled their hot paths
+ * and every class they touch is loaded before real traffic arrives. What happens next is up to
+ * {@code payroll.warm-up.then}:
+ * <ul>
+ * <li>{@code serve} carries on as usual</li>
+ * <li>{@code exit} shuts down, ending a training run that writes an AppCDS archive with
+ * {@code -XX:ArchiveClassesAtExit}</li>
+ * <li>{@code checkpoint} takes a CRaC checkpoint, on a JVM started with {@code -XX:CRaCCheckpointTo}. Spring stops
+ * the web server, the scheduled tasks and the Hikari pool before it, which closes every connection to the in-memory
+ * H2 database (the data itself stays on the heap), and starts them again after each restore.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnExpression("${payroll.warm-up.iterations} > 0")
+class WarmUp {
+
+	private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+	private static final List<String> REQUESTS = List.of("/", //
+			"/employees", "/employees?fields=id,name", "/employees?role=burglar", "/employees/1", //
+			"/orders", "/orders?fields=id,status", "/orders?status=IN_PROGRESS", "/orders/1");
+
+	private final int iterations;
+	private final Then then;
+	private final ObjectProvider<ThrottlingFilter> throttlingFilter;
+
+	WarmUp(@Value("${payroll.warm-up.iterations}") int iterations, @Value("${payroll.warm-up.then}") Then then,
+			ObjectProvider<ThrottlingFilter> throttlingFilter) {
+
+		this.iterations = iterations;
+		this.then = then;
+		this.throttlingFilter = throttlingFilter;
+	}
+
+	@EventListener
+	void on(ApplicationReadyEvent event) {
+
+		WebServerApplicationContext context = (WebServerApplicationContext) event.getApplicationContext();
+		long start = System.nanoTime();
+
+		warmUp(context.getWebServer().getPort());
+
+		log.info("Warmed up with {} rounds of requests in {} ms", iterations, (System.nanoTime() - start) / 1_000_000);
+
+		switch (then) {
+			case SERVE -> {}
+			case EXIT -> System.exit(SpringApplication.exit(context));
+			case CHECKPOINT -> checkpoint();
+		}
+	}
+
+	// The internal key exempts the warm-up from the ThrottlingFilter. Connections are closed after each request, none
+	// may be left open at a checkpoint.
+
+	private void warmUp(int port) {
+
+		RestClient.Builder builder = RestClient.builder() //
+				.requestFactory(new SimpleClientHttpRequestFactory()) //
+				.baseUrl("http://localhost:" + port) //
+				.defaultHeader(HttpHeaders.CONNECTION, "close");
+
+		throttlingFilter.ifAvailable(filter -> builder.defaultHeader(ThrottlingFilter.API_KEY, filter.getInternalKey()));
+
+		RestClient client = builder.build();
+
+		for (int i = 0; i < iterations; i++) {
+			for (String uri : REQUESTS) {
+
+				try {
+					client.get().uri(uri) //
+							.retrieve() //
+							.toBodilessEntity();
+				} catch (RestClientResponseException e) {
+					log.debug("Warm-up request {} answered {}", uri, e.getStatusCode());
+				}
+			}
+		}
+	}
+
+	private static void checkpoint() {
+
+		try {
+			Core.checkpointRestore();
+			log.info("Restored from checkpoint");
+		} catch (UnsupportedOperationException e) {
+			log.warn("This JVM can't take checkpoints, serving without one");
+		} catch (CheckpointException | RestoreException e) {
+			log.error("Checkpoint failed, serving without one", e);
+		}
+	}
+
+	enum Then {
+		SERVE, EXIT, CHECKPOINT
+	}
+}
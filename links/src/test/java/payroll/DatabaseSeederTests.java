@@ -0,0 +1,67 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.outbox.flush-interval=1h" })
+class DatabaseSeederTests {
+
+	@Autowired EntityManagerFactory entityManagerFactory;
+	@Autowired ObjectMapper objectMapper;
+	@Autowired JdbcTemplate jdbc;
+
+	@Test
+	void csvRowsAreInsertedInChunks(@TempDir Path directory) throws Exception {
+
+		Path file = Files.writeString(directory.resolve("orders.csv"), """
+				description,status
+				Seeded Narya,IN_PROGRESS
+				Seeded Nenya,IN_PROGRESS
+				Seeded Vilya,COMPLETED
+				Seeded One Ring,CANCELLED
+				Seeded Dwarven Ring,CANCELLED
+				""");
+
+		// Chunks of two, so the five rows take three transactions, each inserting its rows in one JDBC batch
+
+		DatabaseSeeder seeder = new DatabaseSeeder(entityManagerFactory, objectMapper, 2);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		statistics.setStatisticsEnabled(true);
+
+		try {
+			assertThat(seeder.seed(new FileSystemResource(file), Order.class)).isEqualTo(5);
+			assertThat(statistics.getEntityInsertCount()).isEqualTo(5);
+			assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(3);
+			assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+
+		assertThat(jdbc.queryForList("SELECT description || ' ' || status FROM customer_order "
+				+ "WHERE description LIKE 'Seeded %' ORDER BY id", String.class)).containsExactly( //
+						"Seeded Narya IN_PROGRESS", //
+						"Seeded Nenya IN_PROGRESS", //
+						"Seeded Vilya COMPLETED", //
+						"Seeded One Ring CANCELLED", //
+						"Seeded Dwarven Ring CANCELLED");
+	}
+}
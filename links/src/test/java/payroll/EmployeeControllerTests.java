@@ -0,0 +1,111 @@
+package payroll;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.jayway.jsonpath.JsonPath;
+
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.outbox.flush-interval=1h" })
+@AutoConfigureMockMvc
+class EmployeeControllerTests {
+
+	@Autowired MockMvc mvc;
+
+	@Test
+	void newEmployeeIgnoresClientSuppliedId() throws Exception {
+
+		mvc.perform(post("/employees") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("{\"id\":999999,\"name\":\"Samwise Gamgee\",\"role\":\"gardener\"}")) //
+				.andExpect(status().isCreated()) //
+				.andExpect(jsonPath("$.id", not(999999))) //
+				.andExpect(jsonPath("$.name", is("Samwise Gamgee")));
+	}
+
+	@Test
+	void replaceMissingEmployeeIgnoresClientSuppliedId() throws Exception {
+
+		mvc.perform(put("/employees/{id}", 999998) //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("{\"id\":999998,\"name\":\"Peregrin Took\",\"role\":\"guard\"}")) //
+				.andExpect(status().isCreated()) //
+				.andExpect(jsonPath("$.id", not(999998)));
+	}
+
+	@Test
+	void newEmployeesIgnoreClientSuppliedIds() throws Exception {
+
+		mvc.perform(post("/employees/batch") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("[{\"id\":999997,\"name\":\"Meriadoc Brandybuck\",\"role\":\"squire\"},"
+						+ "{\"id\":1,\"name\":\"Fredegar Bolger\",\"role\":\"lookout\"}]")) //
+				.andExpect(status().isOk()) //
+				.andExpect(jsonPath("$._embedded.employeeList[*].id", everyItem(not(anyOf(is(999997), is(1)))))) //
+				.andExpect(jsonPath("$._embedded.employeeList[1].name", is("Fredegar Bolger")));
+
+		mvc.perform(get("/employees/1")) //
+				.andExpect(jsonPath("$.name", is("Bilbo Baggins")));
+	}
+
+	@Test
+	void employeesAreReplacedAndDeletedInBatches() throws Exception {
+
+		String created = mvc.perform(post("/employees/batch") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("[{\"name\":\"Farmer Maggot\",\"role\":\"farmer\"}]")) //
+				.andExpect(status().isOk()) //
+				.andReturn().getResponse().getContentAsString();
+		int id = JsonPath.read(created, "$._embedded.employeeList[0].id");
+
+		String replaced = mvc.perform(put("/employees/batch") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("[{\"id\":" + id + ",\"name\":\"Farmer Maggot\",\"role\":\"mushroom grower\"},"
+						+ "{\"id\":999996,\"name\":\"Tom Bombadil\",\"role\":\"master\"}]")) //
+				.andExpect(status().isOk()) //
+				.andExpect(jsonPath("$._embedded.employeeList[0].id", is(id))) //
+				.andExpect(jsonPath("$._embedded.employeeList[1].id", not(999996))) //
+				.andReturn().getResponse().getContentAsString();
+		int newId = JsonPath.read(replaced, "$._embedded.employeeList[1].id");
+
+		mvc.perform(get("/employees/{id}", id)) //
+				.andExpect(jsonPath("$.role", is("mushroom grower")));
+
+		mvc.perform(delete("/employees/batch").param("ids", id + "," + newId)) //
+				.andExpect(status().isNoContent());
+
+		mvc.perform(get("/employees/{id}", id)) //
+				.andExpect(status().isNotFound());
+		mvc.perform(get("/employees/{id}", newId)) //
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void partialFieldsetIsRejected() throws Exception {
+
+		MvcResult result = mvc.perform(get("/employees").param("fields", "id")) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result)) //
+				.andExpect(status().isBadRequest()) //
+				.andExpect(jsonPath("$.detail", is("The supported fieldset is id,name")));
+
+		result = mvc.perform(get("/employees").param("fields", "name,id")) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result)) //
+				.andExpect(status().isOk()) //
+				.andExpect(jsonPath("$._embedded.employeeList[0].role").doesNotExist());
+	}
+}
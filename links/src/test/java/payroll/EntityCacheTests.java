@@ -0,0 +1,79 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jayway.jsonpath.JsonPath;
+
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.cache.enabled=true" })
+@AutoConfigureMockMvc
+class EntityCacheTests {
+
+	@Autowired MockMvc mvc;
+	@Autowired EmployeeRepository employees;
+	@Autowired CacheManager cacheManager;
+	@Autowired TransactionTemplate transactions;
+
+	@Test
+	void rolledBackUpdateNeverReachesTheCache() throws Exception {
+
+		long id = created(mvc.perform(post("/employees") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("{\"name\":\"Radagast Brown\",\"role\":\"wizard\"}")) //
+				.andExpect(status().isCreated()) //
+				.andReturn().getResponse().getContentAsString());
+
+		mvc.perform(get("/employees/{id}", id)) //
+				.andExpect(jsonPath("$.role", is("wizard")));
+
+		transactions.executeWithoutResult(status -> {
+
+			Employee employee = employees.findEmployeeById(id).orElseThrow();
+			employee.setRole("traitor");
+			employees.save(employee);
+
+			status.setRollbackOnly();
+		});
+
+		assertThat(cacheManager.getCache(EntityCacheConfiguration.EMPLOYEES).get(id, Employee.class).getRole())
+				.isEqualTo("wizard");
+
+		mvc.perform(get("/employees/{id}", id)) //
+				.andExpect(jsonPath("$.role", is("wizard")));
+	}
+
+	@Test
+	void committedTransitionIsVisibleOnTheNextRead() throws Exception {
+
+		long id = created(mvc.perform(post("/orders") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("{\"description\":\"Staff of Saruman\"}")) //
+				.andExpect(status().isCreated()) //
+				.andReturn().getResponse().getContentAsString());
+
+		mvc.perform(get("/orders/{id}", id)) //
+				.andExpect(jsonPath("$.status", is("IN_PROGRESS")));
+
+		mvc.perform(delete("/orders/{id}/cancel", id)) //
+				.andExpect(status().isOk());
+
+		mvc.perform(get("/orders/{id}", id)) //
+				.andExpect(jsonPath("$.status", is("CANCELLED")));
+	}
+
+	private static long created(String body) {
+		return JsonPath.<Number> read(body, "$.id").longValue();
+	}
+}
@@ -0,0 +1,147 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.idempotency.wait=500ms" })
+@AutoConfigureMockMvc
+class IdempotentRequestsTests {
+
+	@Autowired MockMvc mvc;
+	@Autowired JdbcTemplate jdbc;
+	@Autowired IdempotentRequests idempotentRequests;
+	@Autowired TransactionTemplate transactions;
+
+	@Test
+	void retryIsAnsweredWithTheOrderCreatedFirst() throws Exception {
+
+		MockHttpServletResponse first = mvc.perform(newOrder("retry", "Elven cloak")) //
+				.andExpect(status().isCreated()) //
+				.andReturn().getResponse();
+
+		mvc.perform(newOrder("retry", "Elven cloak")) //
+				.andExpect(status().isCreated()) //
+				.andExpect(header().string(HttpHeaders.LOCATION, first.getHeader(HttpHeaders.LOCATION)));
+
+		assertThat(orders("Elven cloak")).isEqualTo(1);
+	}
+
+	@Test
+	void keyReusedForAnotherRequestIsRejected() throws Exception {
+
+		mvc.perform(newOrder("reused", "Phial of Galadriel")) //
+				.andExpect(status().isCreated());
+
+		mvc.perform(newOrder("reused", "Horn of Gondor")) //
+				.andExpect(status().isUnprocessableEntity());
+
+		assertThat(orders("Horn of Gondor")).isZero();
+	}
+
+	@Test
+	void concurrentDuplicatesCreateOneOrder() throws Exception {
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+
+			Future<MockHttpServletResponse> first = executor.submit(() -> {
+				start.await();
+				return mvc.perform(newOrder("concurrent", "Lembas")).andReturn().getResponse();
+			});
+			Future<MockHttpServletResponse> second = executor.submit(() -> {
+				start.await();
+				return mvc.perform(newOrder("concurrent", "Lembas")).andReturn().getResponse();
+			});
+
+			start.countDown();
+
+			assertThat(first.get().getStatus()).isEqualTo(201);
+			assertThat(second.get().getStatus()).isEqualTo(201);
+			assertThat(second.get().getHeader(HttpHeaders.LOCATION))
+					.isEqualTo(first.get().getHeader(HttpHeaders.LOCATION));
+			assertThat(orders("Lembas")).isEqualTo(1);
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void duplicateOfARequestInProgressIsAskedToRetry() throws Exception {
+
+		CountDownLatch claimed = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+
+			// The first request holds on to the key until its duplicate has given up waiting
+
+			Future<Order> first = executor.submit(() -> transactions.execute(status -> {
+
+				Order order = new Order("Red book", null);
+
+				return idempotentRequests.execute("/orders", "in-progress", order, Order.class, () -> {
+					claimed.countDown();
+					awaitUninterruptibly(release);
+					return order;
+				});
+			}));
+
+			claimed.await();
+
+			mvc.perform(newOrder("in-progress", "Red book")) //
+					.andExpect(status().isConflict()) //
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+			release.countDown();
+			first.get();
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static RequestBuilder newOrder(String key, String description) {
+
+		return post("/orders") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.header(IdempotencyStore.HEADER, key) //
+				.content("{\"description\":\"" + description + "\"}");
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private int orders(String description) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM customer_order WHERE description = ?", Integer.class,
+				description);
+	}
+}
@@ -0,0 +1,14 @@
+package payroll;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The same requests with their results kept in the database. A duplicate's insert first waits for the lock on the
+ * row of the request in progress, which is cut short for the test.
+ */
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.idempotency.wait=500ms", "payroll.idempotency.store=jdbc",
+		"spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=200" })
+@AutoConfigureMockMvc
+class JdbcIdempotentRequestsTests extends IdempotentRequestsTests {}
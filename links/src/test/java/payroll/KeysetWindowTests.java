@@ -0,0 +1,152 @@
+package payroll;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Windows over orders of a description of their own, so orders other tests create don't show up in them.
+ */
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.outbox.flush-interval=1h" })
+@AutoConfigureMockMvc
+class KeysetWindowTests {
+
+	@Autowired MockMvc mvc;
+
+	String description;
+	List<Integer> ids;
+
+	@BeforeEach
+	void createOrders() throws Exception {
+
+		description = "Keyset " + System.nanoTime();
+
+		String created = mvc.perform(post("/orders/batch") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("[{\"description\":\"" + description + " 0\"},{\"description\":\"" + description + " 1\"},"
+						+ "{\"description\":\"" + description + " 2\"},{\"description\":\"" + description + " 3\"},"
+						+ "{\"description\":\"" + description + " 4\"}]")) //
+				.andExpect(status().isOk()) //
+				.andReturn().getResponse().getContentAsString();
+
+		ids = JsonPath.read(created, "$._embedded.orderList[*].id");
+	}
+
+	@Test
+	void firstWindowLeadsOnlyForward() throws Exception {
+
+		window("size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(0), id(1)))) //
+				.andExpect(jsonPath("$._links.prev").doesNotExist()) //
+				.andExpect(jsonPath("$._links.next.href", endsWith("after=" + id(1) + "&size=2")));
+	}
+
+	@Test
+	void windowAfterACursorLeadsBothWays() throws Exception {
+
+		window("after", id(1).toString(), "size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(2), id(3)))) //
+				.andExpect(jsonPath("$._links.self.href", endsWith("after=" + id(1) + "&size=2"))) //
+				.andExpect(jsonPath("$._links.prev.href", endsWith("before=" + id(2) + "&size=2"))) //
+				.andExpect(jsonPath("$._links.next.href", endsWith("after=" + id(3) + "&size=2")));
+
+		window("after", id(3).toString(), "size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(4)))) //
+				.andExpect(jsonPath("$._links.prev.href", endsWith("before=" + id(4) + "&size=2"))) //
+				.andExpect(jsonPath("$._links.next").doesNotExist());
+	}
+
+	@Test
+	void windowBeforeACursorLeadsBothWays() throws Exception {
+
+		window("before", id(4).toString(), "size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(2), id(3)))) //
+				.andExpect(jsonPath("$._links.prev.href", endsWith("before=" + id(2) + "&size=2"))) //
+				.andExpect(jsonPath("$._links.next.href", endsWith("after=" + id(3) + "&size=2")));
+
+		window("before", id(2).toString(), "size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(0), id(1)))) //
+				.andExpect(jsonPath("$._links.prev").doesNotExist()) //
+				.andExpect(jsonPath("$._links.next.href", endsWith("after=" + id(1) + "&size=2")));
+	}
+
+	@Test
+	void emptyWindowsLeadBack() throws Exception {
+
+		String last = Integer.toString(id(4));
+		String beyond = Integer.toString(id(4) + 1);
+
+		window("after", last, "size", "2") //
+				.andExpect(jsonPath("$._embedded").doesNotExist()) //
+				.andExpect(jsonPath("$._links.prev.href", endsWith("before=" + beyond + "&size=2"))) //
+				.andExpect(jsonPath("$._links.next").doesNotExist());
+
+		window("before", beyond, "size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(3), id(4))));
+
+		String first = Integer.toString(id(0));
+		String ahead = Integer.toString(id(0) - 1);
+
+		window("before", first, "size", "2") //
+				.andExpect(jsonPath("$._embedded").doesNotExist()) //
+				.andExpect(jsonPath("$._links.prev").doesNotExist()) //
+				.andExpect(jsonPath("$._links.next.href", endsWith("after=" + ahead + "&size=2")));
+
+		window("after", ahead, "size", "2") //
+				.andExpect(jsonPath("$._embedded.orderList[*].id", contains(id(0), id(1))));
+	}
+
+	@Test
+	void sizeIsClamped() throws Exception {
+
+		window("size", "1000") //
+				.andExpect(jsonPath("$._embedded.orderList", hasSize(5))) //
+				.andExpect(jsonPath("$._links.self.href", endsWith("size=" + KeysetWindow.MAX_SIZE)));
+
+		window("size", "0") //
+				.andExpect(jsonPath("$._embedded.orderList", hasSize(1))) //
+				.andExpect(jsonPath("$._links.self.href", endsWith("size=1")));
+
+		window() //
+				.andExpect(jsonPath("$._links.self.href", endsWith("size=" + KeysetWindow.DEFAULT_SIZE)));
+	}
+
+	// Small enough to be read back from JSON as integers
+
+	private Integer id(int index) {
+		return ids.get(index);
+	}
+
+	// Lists are answered asynchronously
+
+	private ResultActions window(String... parameters) throws Exception {
+
+		var request = get("/orders").param("description", description);
+
+		for (int i = 0; i < parameters.length; i += 2) {
+			request.param(parameters[i], parameters[i + 1]);
+		}
+
+		MvcResult result = mvc.perform(request) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		return mvc.perform(asyncDispatch(result)) //
+				.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,355 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * The outbox isn't flushed in the background, so statement counts only see what the request itself does.
+ */
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.outbox.flush-interval=1h" })
+@AutoConfigureMockMvc
+class OrderControllerTests {
+
+	@Autowired MockMvc mvc;
+	@Autowired JdbcTemplate jdbc;
+	@Autowired EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void newOrderIgnoresClientSuppliedId() throws Exception {
+
+		mvc.perform(post("/orders") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("{\"id\":1,\"description\":\"Palantir\"}")) //
+				.andExpect(status().isCreated()) //
+				.andExpect(jsonPath("$.id", not(1))) //
+				.andExpect(jsonPath("$.status", is("IN_PROGRESS")));
+
+		mvc.perform(get("/orders/1")) //
+				.andExpect(jsonPath("$.description", is("MacBook Pro")));
+	}
+
+	@Test
+	void representationsOfAnOrderHaveTagsOfTheirOwn() throws Exception {
+
+		String etag = mvc.perform(get("/orders/1").accept(MediaTypes.HAL_JSON)) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))) //
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/orders/1").accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, etag)) //
+				.andExpect(status().isNotModified());
+
+		mvc.perform(get("/orders/1") //
+				.accept(BinaryFormatsConfiguration.HAL_CBOR) //
+				.header(HttpHeaders.IF_NONE_MATCH, etag)) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+	}
+
+	@Test
+	void representationsOfAListHaveTagsOfTheirOwn() throws Exception {
+
+		MockHttpServletResponse json = list(get("/orders").accept(MediaTypes.HAL_JSON));
+		String etag = json.getHeader(HttpHeaders.ETAG);
+
+		assertThat(json.getStatus()).isEqualTo(200);
+		assertThat(etag).startsWith("W/");
+
+		assertThat(list(get("/orders").accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.getStatus()).isEqualTo(304);
+
+		MockHttpServletResponse cbor = list(get("/orders") //
+				.accept(BinaryFormatsConfiguration.HAL_CBOR) //
+				.header(HttpHeaders.IF_NONE_MATCH, etag));
+
+		assertThat(cbor.getStatus()).isEqualTo(200);
+		assertThat(cbor.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+
+		MockHttpServletResponse compact = list(get("/orders") //
+				.param("compact", "true") //
+				.accept(MediaTypes.HAL_JSON) //
+				.header(HttpHeaders.IF_NONE_MATCH, etag));
+
+		assertThat(compact.getStatus()).isEqualTo(200);
+		assertThat(compact.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+	}
+
+	@Test
+	void newOrdersAreInsertedInJdbcBatches() throws Exception {
+
+		String orders = IntStream.range(0, 20) //
+				.mapToObj(i -> "{\"description\":\"Ring " + i + "\"}") //
+				.collect(Collectors.joining(",", "[", "]"));
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		statistics.setStatisticsEnabled(true);
+
+		try {
+
+			mvc.perform(post("/orders/batch") //
+					.contentType(MediaType.APPLICATION_JSON) //
+					.content(orders)) //
+					.andExpect(status().isOk()) //
+					.andExpect(jsonPath("$._embedded.orderList", hasSize(20))) //
+					.andExpect(jsonPath("$._embedded.orderList[*].status", everyItem(is("IN_PROGRESS"))));
+
+			// One statement for the orders and one for their outbox events, at most a sequence call for each next to them
+
+			assertThat(statistics.getEntityInsertCount()).isEqualTo(40);
+			assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	void ordersCancelledInBatchComeBackInTheOrderAskedFor() throws Exception {
+
+		List<Long> ids = newOrders("Sting", "Glamdring", "Orcrist");
+
+		mvc.perform(put("/orders/{id}/complete", ids.get(1))) //
+				.andExpect(status().isOk());
+
+		mvc.perform(delete("/orders/batch/cancel") //
+				.param("ids", ids.get(2) + "," + ids.get(1) + "," + ids.get(0))) //
+				.andExpect(status().isOk()) //
+				.andExpect(jsonPath("$._embedded.orderList[*].description", contains("Orcrist", "Glamdring", "Sting"))) //
+				.andExpect(jsonPath("$._embedded.orderList[*].status", contains("CANCELLED", "COMPLETED", "CANCELLED")));
+	}
+
+	@Test
+	void batchNamingUnknownOrdersIsRejected() throws Exception {
+
+		List<Long> ids = newOrders("Anduril");
+
+		mvc.perform(delete("/orders/batch/cancel") //
+				.param("ids", ids.get(0) + ",999999,999998")) //
+				.andExpect(status().isNotFound()) //
+				.andExpect(content().contentType(MediaTypes.HTTP_PROBLEM_DETAILS_JSON)) //
+				.andExpect(jsonPath("$.detail", is("Could not find orders 999999, 999998")));
+
+		mvc.perform(get("/orders/{id}", ids.get(0))) //
+				.andExpect(jsonPath("$.status", is("IN_PROGRESS")));
+	}
+
+	@Test
+	void subscribersGetTheEventsTheyAskedFor() throws Exception {
+
+		List<Long> ids = newOrders("Palantir of Orthanc", "Palantir of Minas Tirith");
+
+		MockHttpServletResponse cancellations = mvc.perform(get("/orders/events") //
+				.param("id", ids.get(0).toString()) //
+				.param("status", "CANCELLED")) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn().getResponse();
+		MockHttpServletResponse creations = mvc.perform(get("/orders/events").param("status", "IN_PROGRESS")) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn().getResponse();
+
+		mvc.perform(delete("/orders/{id}/cancel", ids.get(1))) //
+				.andExpect(status().isOk());
+		mvc.perform(delete("/orders/{id}/cancel", ids.get(0))) //
+				.andExpect(status().isOk());
+		long created = newOrders("Palantir of Osgiliath").get(0);
+
+		awaitContent(cancellations, "data:{\"id\":" + ids.get(0) + ",\"status\":\"CANCELLED\"}");
+		awaitContent(creations, "data:{\"id\":" + created + ",\"status\":\"IN_PROGRESS\"}");
+
+		assertThat(cancellations.getContentAsString()).doesNotContain("\"id\":" + ids.get(1) + ",");
+		assertThat(creations.getContentAsString()).doesNotContain("CANCELLED");
+	}
+
+	@Test
+	void descriptionFilterMatchesWildcardsLiterally() throws Exception {
+
+		newOrders("100%_Mithril", "100% Mithril", "100_% Mithril", "1000 Mithril");
+
+		MockHttpServletResponse orders = list(get("/orders").param("description", "100%_"));
+
+		assertThat(orders.getStatus()).isEqualTo(200);
+		assertThat(JsonPath.<List<String>> read(orders.getContentAsString(), "$._embedded.orderList[*].description"))
+				.containsExactly("100%_Mithril");
+	}
+
+	@Test
+	void unsupportedFieldsetIsRejected() throws Exception {
+
+		for (String fields : List.of("id", "id,description", "id,status,description", "price")) {
+
+			MockHttpServletResponse rejected = list(get("/orders").param("fields", fields));
+
+			assertThat(rejected.getStatus()).as(fields).isEqualTo(400);
+			assertThat(rejected.getContentType()).isEqualTo(MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE);
+			assertThat(JsonPath.<String> read(rejected.getContentAsString(), "$.detail"))
+					.isEqualTo("The supported fieldset is id,status");
+		}
+
+		MockHttpServletResponse summaries = list(get("/orders").param("fields", "status,id"));
+
+		assertThat(summaries.getStatus()).isEqualTo(200);
+		assertThat(JsonPath.<List<Object>> read(summaries.getContentAsString(), "$._embedded.orderList[*].description"))
+				.isEmpty();
+		assertThat(JsonPath.<List<Object>> read(summaries.getContentAsString(), "$._embedded.orderList[*].status"))
+				.isNotEmpty();
+	}
+
+	@Test
+	void compactListCarriesLinkTemplatesInsteadOfLinksPerOrder() throws Exception {
+
+		String compact = list(get("/orders").param("compact", "true").param("size", "2")).getContentAsString();
+
+		assertThat(JsonPath.<Map<String, Object>> read(compact, "$._embedded.orderList[0]"))
+				.containsOnlyKeys("id", "description", "status");
+		assertThat(JsonPath.<List<Object>> read(compact, "$._embedded.orderList[*]._links")).isEmpty();
+
+		assertThat(JsonPath.<String> read(compact, "$._links.self.href")).endsWith("/orders?compact=true&size=2");
+		assertThat(JsonPath.<String> read(compact, "$._links.item.href")).isEqualTo("http://localhost/orders/{id}");
+		assertThat(JsonPath.<String> read(compact, "$._links.cancel.href"))
+				.isEqualTo("http://localhost/orders/{id}/cancel");
+		assertThat(JsonPath.<String> read(compact, "$._links.complete.href"))
+				.isEqualTo("http://localhost/orders/{id}/complete");
+		assertThat(JsonPath.<List<Boolean>> read(compact, "$._links[*].templated")).hasSize(4).containsOnly(true);
+	}
+
+	@Test
+	void onlyOneOfManyConcurrentTransitionsWins() throws Exception {
+
+		int threads = 64;
+
+		String location = mvc.perform(post("/orders") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content("{\"description\":\"Mithril coat\"}")) //
+				.andExpect(status().isCreated()) //
+				.andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+		long id = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+		long version = version(id);
+
+		// Half of them cancel, half complete, all released at once
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+
+		try {
+
+			for (int i = 0; i < threads; i++) {
+
+				RequestBuilder transition = i % 2 == 0 //
+						? delete("/orders/{id}/cancel", id) //
+						: put("/orders/{id}/complete", id);
+
+				responses.add(executor.submit(() -> {
+					start.await();
+					return mvc.perform(transition).andReturn().getResponse();
+				}));
+			}
+
+			start.countDown();
+
+			int succeeded = 0;
+			int rejected = 0;
+
+			for (Future<MockHttpServletResponse> response : responses) {
+
+				MockHttpServletResponse answered = response.get();
+
+				if (answered.getStatus() == 200) {
+					succeeded++;
+				} else {
+					assertThat(answered.getStatus()).isIn(405, 409);
+					assertThat(answered.getContentType()).startsWith(MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE);
+					rejected++;
+				}
+			}
+
+			assertThat(succeeded).isEqualTo(1);
+			assertThat(rejected).isEqualTo(threads - 1);
+			assertThat(version(id)).isEqualTo(version + 1);
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Long> newOrders(String... descriptions) throws Exception {
+
+		String orders = Stream.of(descriptions) //
+				.map(description -> "{\"description\":\"" + description + "\"}") //
+				.collect(Collectors.joining(",", "[", "]"));
+
+		String created = mvc.perform(post("/orders/batch") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content(orders)) //
+				.andExpect(status().isOk()) //
+				.andReturn().getResponse().getContentAsString();
+
+		return JsonPath.<List<Number>> read(created, "$._embedded.orderList[*].id").stream() //
+				.map(Number::longValue) //
+				.toList();
+	}
+
+	// Events are sent on a thread of their own, shortly after the change commits
+
+	private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+		while (!response.getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+
+		assertThat(response.getContentAsString()).contains(expected);
+	}
+
+	// Lists are answered asynchronously, so the response is the one of the dispatch that follows
+
+	private MockHttpServletResponse list(RequestBuilder builder) throws Exception {
+
+		MvcResult result = mvc.perform(builder) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		return mvc.perform(asyncDispatch(result)).andReturn().getResponse();
+	}
+
+	private long version(long id) {
+		return jdbc.queryForObject("SELECT version FROM customer_order WHERE id = ?", Long.class, id);
+	}
+}
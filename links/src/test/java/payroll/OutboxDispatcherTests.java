@@ -0,0 +1,84 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The outbox is only flushed when a test says so, rather than every second in the background.
+ */
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.outbox.flush-interval=1h" })
+class OutboxDispatcherTests {
+
+	@Autowired OrderRepository orders;
+	@Autowired OutboxRepository outbox;
+	@Autowired OutboxDispatcher dispatcher;
+	@Autowired ApplicationEventPublisher publisher;
+	@Autowired TransactionTemplate transactions;
+	@Autowired RecordingSink sink;
+
+	@Test
+	void rolledBackChangeLeavesNoEvent() {
+
+		Long id = transactions.execute(status -> {
+
+			Order order = orders.save(new Order("Arkenstone", Status.IN_PROGRESS));
+			publisher.publishEvent(OrderStatusChanged.of(order));
+			status.setRollbackOnly();
+
+			return order.getId();
+		});
+
+		assertThat(outbox.findAll()).extracting(OutboxEvent::getOrderId).doesNotContain(id);
+	}
+
+	@Test
+	void flushedEventsAreDeliveredAndRemoved() {
+
+		Long id = transactions.execute(status -> {
+
+			Order order = orders.save(new Order("Mithril shirt", Status.IN_PROGRESS));
+			publisher.publishEvent(OrderStatusChanged.of(order));
+
+			return order.getId();
+		});
+
+		assertThat(outbox.findAll()).extracting(OutboxEvent::getOrderId).contains(id);
+
+		dispatcher.flush();
+
+		assertThat(sink.delivered).extracting(OutboxEvent::getOrderId, OutboxEvent::getStatus)
+				.contains(tuple(id, Status.IN_PROGRESS));
+		assertThat(outbox.count()).isZero();
+	}
+
+	@TestConfiguration
+	static class Sinks {
+
+		@Bean
+		RecordingSink recordingSink() {
+			return new RecordingSink();
+		}
+	}
+
+	static class RecordingSink implements OutboxSink {
+
+		final List<OutboxEvent> delivered = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(List<OutboxEvent> events) {
+			delivered.addAll(events);
+		}
+	}
+}
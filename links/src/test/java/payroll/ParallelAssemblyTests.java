@@ -0,0 +1,73 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Several threads regardless of the processors at hand, so lists above the threshold really are split up.
+ */
+@SpringBootTest(properties = { "payroll.throttling.enabled=false", "payroll.seed.blocking=true",
+		"payroll.assembly.parallelism=4" })
+@AutoConfigureMockMvc
+class ParallelAssemblyTests {
+
+	@Autowired MockMvc mvc;
+
+	@Test
+	void listAboveTheThresholdKeepsItsOrderAndAbsoluteLinks() throws Exception {
+
+		int count = 3 * 64;
+
+		String orders = IntStream.range(0, count) //
+				.mapToObj(i -> "{\"description\":\"Silmaril " + i + "\"}") //
+				.collect(Collectors.joining(",", "[", "]"));
+
+		String created = mvc.perform(post("http://payroll.example/orders/batch") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.content(orders)) //
+				.andExpect(status().isOk()) //
+				.andReturn().getResponse().getContentAsString();
+
+		assertInOrderWithLinks(created, count);
+
+		MvcResult result = mvc.perform(get("http://payroll.example/orders") //
+				.param("description", "Silmaril") //
+				.param("size", "100")) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		String window = mvc.perform(asyncDispatch(result)) //
+				.andExpect(status().isOk()) //
+				.andReturn().getResponse().getContentAsString();
+
+		assertInOrderWithLinks(window, 100);
+	}
+
+	private static void assertInOrderWithLinks(String body, int count) {
+
+		List<Integer> ids = JsonPath.read(body, "$._embedded.orderList[*].id");
+		List<String> descriptions = JsonPath.read(body, "$._embedded.orderList[*].description");
+		List<String> self = JsonPath.read(body, "$._embedded.orderList[*]._links.self.href");
+		List<String> cancel = JsonPath.read(body, "$._embedded.orderList[*]._links.cancel.href");
+
+		assertThat(ids).hasSize(count).isSorted();
+		assertThat(descriptions).isEqualTo(IntStream.range(0, count).mapToObj(i -> "Silmaril " + i).toList());
+		assertThat(self).isEqualTo(ids.stream().map(id -> "http://payroll.example/orders/" + id).toList());
+		assertThat(cancel).isEqualTo(ids.stream().map(id -> "http://payroll.example/orders/" + id + "/cancel").toList());
+	}
+}
@@ -0,0 +1,103 @@
+package payroll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Every test sends its requests from an address of its own, so they don't share buckets.
+ */
+@SpringBootTest(properties = { "payroll.seed.blocking=true", "payroll.throttling.list.capacity=2",
+		"payroll.throttling.list.refill-per-second=1", "payroll.throttling.api-keys=frodo,sam" })
+@AutoConfigureMockMvc
+class ThrottlingFilterTests {
+
+	@Autowired MockMvc mvc;
+	@Autowired ThrottlingFilter throttlingFilter;
+
+	@Test
+	void clientOverItsBudgetIsToldWhenToRetry() throws Exception {
+
+		MockHttpServletResponse rejected = exhaustListBudget("10.0.0.1");
+
+		assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(rejected.getContentType()).isEqualTo(MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE);
+		assertThat(rejected.getContentAsString()).contains("Request rate for list resources exceeded");
+
+		// Other clients still have theirs
+
+		answered(orders("10.0.0.2"));
+	}
+
+	@Test
+	void clientsWithConfiguredKeysHaveBucketsOfTheirOwn() throws Exception {
+
+		exhaustListBudget("10.0.0.3");
+
+		// Made up keys don't get fresh buckets
+
+		mvc.perform(orders("10.0.0.3").header(ThrottlingFilter.API_KEY, "gollum")) //
+				.andExpect(status().isTooManyRequests());
+
+		answered(orders("10.0.0.3").header(ThrottlingFilter.API_KEY, "frodo"));
+		answered(orders("10.0.0.3").header(ThrottlingFilter.API_KEY, "sam"));
+	}
+
+	@Test
+	void warmUpIsNotThrottled() throws Exception {
+
+		exhaustListBudget("127.0.0.1");
+
+		answered(orders("127.0.0.1").header(ThrottlingFilter.API_KEY, throttlingFilter.getInternalKey()));
+	}
+
+	// Sends list requests until one is rejected, however many tokens were refilled in between
+
+	private MockHttpServletResponse exhaustListBudget(String address) throws Exception {
+
+		for (int i = 0; i < 10; i++) {
+
+			MvcResult result = mvc.perform(orders(address)).andReturn();
+
+			if (result.getResponse().getStatus() == 429) {
+				return result.getResponse();
+			}
+
+			mvc.perform(asyncDispatch(result)) //
+					.andExpect(status().isOk());
+		}
+
+		throw new AssertionError("Requests from " + address + " were never throttled");
+	}
+
+	// Lists are answered asynchronously, the request is only complete once dispatched again
+
+	private void answered(MockHttpServletRequestBuilder builder) throws Exception {
+
+		MvcResult result = mvc.perform(builder) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result)) //
+				.andExpect(status().isOk());
+	}
+
+	private static MockHttpServletRequestBuilder orders(String address) {
+
+		return get("/orders").with(request -> {
+			request.setRemoteAddr(address);
+			return request;
+		});
+	}
+}
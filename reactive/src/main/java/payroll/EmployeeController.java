@@ -0,0 +1,101 @@
+package payroll;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+class EmployeeController {
+
+	private final EmployeeRepository repository;
+	private final EmployeeModelAssembler assembler;
+
+	EmployeeController(EmployeeRepository repository, EmployeeModelAssembler assembler) {
+
+		this.repository = repository;
+		this.assembler = assembler;
+	}
+
+	// Aggregate root
+
+	@GetMapping("/employees")
+	Mono<CollectionModel<EntityModel<Employee>>> all(@RequestParam(required = false) Long after,
+			@RequestParam(required = false) Integer size, ServerWebExchange exchange) {
+
+		int windowSize = Keyset.clamp(size);
+
+		return repository.findByIdGreaterThanOrderByIdAsc(Keyset.start(after), Limit.of(windowSize + 1)) //
+				.collectList() //
+				.flatMap(employees -> assembler.toCollectionModel(employees, after, windowSize, exchange));
+	}
+
+	@GetMapping(value = "/employees", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	Flux<Employee> export() {
+		return repository.findAllByOrderByIdAsc();
+	}
+
+	@PostMapping("/employees")
+	Mono<ResponseEntity<EntityModel<Employee>>> newEmployee(@RequestBody Employee newEmployee,
+			ServerWebExchange exchange) {
+
+		// Ids are always generated: with one sent along, R2DBC would update that row instead of inserting a new one
+		newEmployee.setId(null);
+
+		return repository.save(newEmployee) //
+				.flatMap(employee -> assembler.toModel(employee, exchange)) //
+				.map(entityModel -> ResponseEntity //
+						.created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri()) //
+						.body(entityModel));
+	}
+
+	// Single item
+
+	@GetMapping("/employees/{id}")
+	Mono<EntityModel<Employee>> one(@PathVariable Long id, ServerWebExchange exchange) {
+
+		return repository.findById(id) //
+				.switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException(id))) //
+				.flatMap(employee -> assembler.toModel(employee, exchange));
+	}
+
+	@PutMapping("/employees/{id}")
+	Mono<ResponseEntity<EntityModel<Employee>>> replaceEmployee(@RequestBody Employee newEmployee,
+			@PathVariable Long id, ServerWebExchange exchange) {
+
+		return repository.findById(id) //
+				.map(employee -> {
+					employee.setName(newEmployee.getName());
+					employee.setRole(newEmployee.getRole());
+					return employee;
+				}) //
+				.switchIfEmpty(Mono.fromSupplier(() -> {
+					newEmployee.setId(null);
+					return newEmployee;
+				})) //
+				.flatMap(repository::save) //
+				.flatMap(employee -> assembler.toModel(employee, exchange)) //
+				.map(entityModel -> ResponseEntity //
+						.created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri()) //
+						.body(entityModel));
+	}
+
+	@DeleteMapping("/employees/{id}")
+	Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable Long id) {
+		return repository.deleteById(id).then(Mono.just(ResponseEntity.noContent().build()));
+	}
+}
@@ -0,0 +1,77 @@
+package payroll;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.*;
+
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.reactive.ReactiveRepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+class EmployeeModelAssembler implements ReactiveRepresentationModelAssembler<Employee, EntityModel<Employee>> {
+
+	@Override
+	public Mono<EntityModel<Employee>> toModel(Employee employee, ServerWebExchange exchange) {
+		return templates(exchange).map(templates -> toModel(employee, templates));
+	}
+
+	@Override
+	public Mono<CollectionModel<EntityModel<Employee>>> toCollectionModel(Flux<? extends Employee> employees,
+			ServerWebExchange exchange) {
+		return templates(exchange) //
+				.flatMap(templates -> employees.map(employee -> toModel(employee, templates)).collectList()) //
+				.map(CollectionModel::of);
+	}
+
+	/**
+	 * Assemble one keyset window, fetched with one row more than {@code size} to tell whether there is a next one.
+	 */
+	Mono<CollectionModel<EntityModel<Employee>>> toCollectionModel(List<Employee> rows, Long after, int size,
+			ServerWebExchange exchange) {
+
+		return templates(exchange).map(templates -> {
+
+			List<Employee> content = rows.subList(0, Math.min(rows.size(), size));
+			CollectionModel<EntityModel<Employee>> employees = CollectionModel
+					.of(content.stream().map(employee -> toModel(employee, templates)).toList());
+
+			employees.add(templates.employees().withSelfRel().expand(Keyset.parameters(after, size)));
+
+			if (rows.size() > size) {
+				employees.add(templates.employees().withRel(IanaLinkRelations.NEXT)
+						.expand(Keyset.parameters(content.get(content.size() - 1).getId(), size)));
+			}
+
+			return employees;
+		});
+	}
+
+	private EntityModel<Employee> toModel(Employee employee, Templates templates) {
+
+		return EntityModel.of(employee, //
+				templates.self().expand(employee.getId()), //
+				templates.employees());
+	}
+
+	// Resolved once per request, then only get the employee id expanded into them
+
+	private Mono<Templates> templates(ServerWebExchange exchange) {
+
+		EmployeeController controller = methodOn(EmployeeController.class);
+
+		return Mono.zip( //
+				linkTo(controller.one(null, null), exchange).withSelfRel().toMono(), //
+				linkTo(controller.all(null, null, null), exchange).withRel("employees").toMono()) //
+				.map(links -> new Templates(links.getT1(), links.getT2()));
+	}
+
+	private record Templates(Link self, Link employees) {}
+}
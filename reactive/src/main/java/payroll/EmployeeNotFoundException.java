@@ -0,0 +1,8 @@
+package payroll;
+
+class EmployeeNotFoundException extends RuntimeException {
+
+	EmployeeNotFoundException(Long id) {
+		super("Could not find employee " + id);
+	}
+}
@@ -0,0 +1,13 @@
+package payroll;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+
+interface EmployeeRepository extends ReactiveCrudRepository<Employee, Long> {
+
+	Flux<Employee> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	Flux<Employee> findAllByOrderByIdAsc();
+}
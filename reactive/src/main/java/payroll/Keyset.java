@@ -0,0 +1,30 @@
+package payroll;
+
+import java.util.Map;
+
+/**
+ * Keyset (id based cursor) windows over an aggregate root: every window is a range scan on the primary key, and none
+ * is ever bigger than {@link #MAX_SIZE} rows.
+ */
+final class Keyset {
+
+	static final int DEFAULT_SIZE = 20;
+	static final int MAX_SIZE = 100;
+
+	private Keyset() {}
+
+	static int clamp(Integer size) {
+		return size == null ? DEFAULT_SIZE : Math.max(1, Math.min(size, MAX_SIZE));
+	}
+
+	static long start(Long after) {
+		return after == null ? Long.MIN_VALUE : after;
+	}
+
+	/**
+	 * @return the request parameters selecting a window, to be expanded into the aggregate root's link template
+	 */
+	static Map<String, Object> parameters(Long after, int size) {
+		return after == null ? Map.of("size", size) : Map.of("after", after, "size", size);
+	}
+}
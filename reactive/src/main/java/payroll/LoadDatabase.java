@@ -0,0 +1,36 @@
+package payroll;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.core.publisher.Flux;
+
+@Configuration
+class LoadDatabase {
+
+	private static final Logger log = LoggerFactory.getLogger(LoadDatabase.class);
+
+	@Bean
+	CommandLineRunner initDatabase(EmployeeRepository employeeRepository, OrderRepository orderRepository) {
+
+		// Runs on the main thread during startup, so it is fine to block until preloading is done
+
+		return args -> {
+
+			employeeRepository.saveAll(Flux.just( //
+					new Employee("Bilbo", "Baggins", "burglar"), //
+					new Employee("Frodo", "Baggins", "thief"))) //
+					.doOnNext(employee -> log.info("Preloaded " + employee)) //
+					.blockLast();
+
+			orderRepository.saveAll(Flux.just( //
+					new Order("MacBook Pro", Status.COMPLETED), //
+					new Order("iPhone", Status.IN_PROGRESS))) //
+					.doOnNext(order -> log.info("Preloaded " + order)) //
+					.blockLast();
+		};
+	}
+}
@@ -0,0 +1,107 @@
+package payroll;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+class OrderController {
+
+	private final OrderRepository orderRepository;
+	private final OrderModelAssembler assembler;
+
+	OrderController(OrderRepository orderRepository, OrderModelAssembler assembler) {
+
+		this.orderRepository = orderRepository;
+		this.assembler = assembler;
+	}
+
+	@GetMapping("/orders")
+	Mono<CollectionModel<EntityModel<Order>>> all(@RequestParam(required = false) Long after,
+			@RequestParam(required = false) Integer size, ServerWebExchange exchange) {
+
+		int windowSize = Keyset.clamp(size);
+
+		return orderRepository.findByIdGreaterThanOrderByIdAsc(Keyset.start(after), Limit.of(windowSize + 1)) //
+				.collectList() //
+				.flatMap(orders -> assembler.toCollectionModel(orders, after, windowSize, exchange));
+	}
+
+	/**
+	 * Every order as newline delimited JSON, written out as it is read: rows are only pulled from the database as fast
+	 * as the client consumes them, so a slow reader never makes the server buffer the table.
+	 */
+	@GetMapping(value = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	Flux<Order> export() {
+		return orderRepository.findAllByOrderByIdAsc();
+	}
+
+	@GetMapping("/orders/{id}")
+	Mono<EntityModel<Order>> one(@PathVariable Long id, ServerWebExchange exchange) {
+
+		return findOrder(id) //
+				.flatMap(order -> assembler.toModel(order, exchange));
+	}
+
+	@PostMapping("/orders")
+	Mono<ResponseEntity<EntityModel<Order>>> newOrder(@RequestBody Order order, ServerWebExchange exchange) {
+
+		order.setId(null);
+		order.setStatus(Status.IN_PROGRESS);
+
+		return orderRepository.save(order) //
+				.flatMap(newOrder -> assembler.toModel(newOrder, exchange)) //
+				.map(entityModel -> ResponseEntity //
+						.created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri()) //
+						.body(entityModel));
+	}
+
+	@DeleteMapping("/orders/{id}/cancel")
+	Mono<ResponseEntity<?>> cancel(@PathVariable Long id, ServerWebExchange exchange) {
+		return transition(id, Status.CANCELLED, "cancel", exchange);
+	}
+
+	@PutMapping("/orders/{id}/complete")
+	Mono<ResponseEntity<?>> complete(@PathVariable Long id, ServerWebExchange exchange) {
+		return transition(id, Status.COMPLETED, "complete", exchange);
+	}
+
+	// Check and update in a single statement, so only one of several racing transitions can win
+
+	private Mono<ResponseEntity<?>> transition(Long id, Status status, String action, ServerWebExchange exchange) {
+
+		return orderRepository.transition(id, Status.IN_PROGRESS.name(), status.name()) //
+				.flatMap(updated -> updated == 1 //
+						? findOrder(id).flatMap(order -> assembler.toModel(order, exchange)).map(ResponseEntity::ok)
+						: findOrder(id).map(order -> ResponseEntity //
+								.status(HttpStatus.METHOD_NOT_ALLOWED) //
+								.header(HttpHeaders.CONTENT_TYPE, MediaTypes.HTTP_PROBLEM_DETAILS_JSON_VALUE) //
+								.body(Problem.create() //
+										.withTitle("Method not allowed") //
+										.withDetail("You can't " + action + " an order that is in the "
+												+ order.getStatus() + " status"))));
+	}
+
+	private Mono<Order> findOrder(Long id) {
+		return orderRepository.findById(id).switchIfEmpty(Mono.error(() -> new OrderNotFoundException(id)));
+	}
+}
@@ -0,0 +1,90 @@
+package payroll;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.*;
+
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.reactive.ReactiveRepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+class OrderModelAssembler implements ReactiveRepresentationModelAssembler<Order, EntityModel<Order>> {
+
+	@Override
+	public Mono<EntityModel<Order>> toModel(Order order, ServerWebExchange exchange) {
+		return templates(exchange).map(templates -> toModel(order, templates));
+	}
+
+	@Override
+	public Mono<CollectionModel<EntityModel<Order>>> toCollectionModel(Flux<? extends Order> orders,
+			ServerWebExchange exchange) {
+		return templates(exchange) //
+				.flatMap(templates -> orders.map(order -> toModel(order, templates)).collectList()) //
+				.map(CollectionModel::of);
+	}
+
+	/**
+	 * Assemble one keyset window, fetched with one row more than {@code size} to tell whether there is a next one.
+	 */
+	Mono<CollectionModel<EntityModel<Order>>> toCollectionModel(List<Order> rows, Long after, int size,
+			ServerWebExchange exchange) {
+
+		return templates(exchange).map(templates -> {
+
+			List<Order> content = rows.subList(0, Math.min(rows.size(), size));
+			CollectionModel<EntityModel<Order>> orders = CollectionModel
+					.of(content.stream().map(order -> toModel(order, templates)).toList());
+
+			orders.add(templates.orders().withSelfRel().expand(Keyset.parameters(after, size)));
+
+			if (rows.size() > size) {
+				orders.add(templates.orders().withRel(IanaLinkRelations.NEXT)
+						.expand(Keyset.parameters(content.get(content.size() - 1).getId(), size)));
+			}
+
+			return orders;
+		});
+	}
+
+	private EntityModel<Order> toModel(Order order, Templates templates) {
+
+		// Unconditional links to single-item resource and aggregate root
+
+		EntityModel<Order> orderModel = EntityModel.of(order, //
+				templates.self().expand(order.getId()), //
+				templates.orders());
+
+		// Conditional links based on state of the order
+
+		if (order.getStatus() == Status.IN_PROGRESS) {
+			orderModel.add(templates.cancel().expand(order.getId()));
+			orderModel.add(templates.complete().expand(order.getId()));
+		}
+
+		return orderModel;
+	}
+
+	// Resolved once per request, then only get the order id expanded into them
+
+	private Mono<Templates> templates(ServerWebExchange exchange) {
+
+		OrderController controller = methodOn(OrderController.class);
+
+		return Mono.zip( //
+				linkTo(controller.one(null, null), exchange).withSelfRel().toMono(), //
+				linkTo(controller.all(null, null, null), exchange).withRel("orders").toMono(), //
+				linkTo(controller.cancel(null, null), exchange).withRel("cancel").toMono(), //
+				linkTo(controller.complete(null, null), exchange).withRel("complete").toMono()) //
+				.map(links -> new Templates(links.getT1(), links.getT2(), links.getT3(), links.getT4()));
+	}
+
+	private record Templates(Link self, Link orders, Link cancel, Link complete) {}
+}
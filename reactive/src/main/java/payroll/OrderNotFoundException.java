@@ -0,0 +1,8 @@
+package payroll;
+
+class OrderNotFoundException extends RuntimeException {
+
+	OrderNotFoundException(Long id) {
+		super("Could not find order " + id);
+	}
+}
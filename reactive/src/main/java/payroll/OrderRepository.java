@@ -0,0 +1,25 @@
+package payroll;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+interface OrderRepository extends ReactiveCrudRepository<Order, Long> {
+
+	Flux<Order> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	Flux<Order> findAllByOrderByIdAsc();
+
+	/**
+	 * Move an order from one status to another, but only if it is still in the expected one.
+	 *
+	 * @return the number of orders updated, {@literal 0} if the order does not exist or is in another status
+	 */
+	@Modifying
+	@Query("UPDATE customer_order SET status = :to WHERE id = :id AND status = :from")
+	Mono<Integer> transition(Long id, String from, String to);
+}
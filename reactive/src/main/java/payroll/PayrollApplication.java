@@ -0,0 +1,16 @@
+package payroll;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.hateoas.config.EnableHypermediaSupport.HypermediaType;
+
+// Boot only auto-configures hypermedia support for Spring MVC
+@SpringBootApplication
+@EnableHypermediaSupport(type = HypermediaType.HAL)
+public class PayrollApplication {
+
+	public static void main(String... args) {
+		SpringApplication.run(PayrollApplication.class, args);
+	}
+}
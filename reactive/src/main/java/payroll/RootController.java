@@ -0,0 +1,24 @@
+package payroll;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.*;
+
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+class RootController {
+
+	@GetMapping
+	Mono<RepresentationModel<?>> index(ServerWebExchange exchange) {
+
+		return linkTo(methodOn(EmployeeController.class).all(null, null, null), exchange).withRel("employees").toMono() //
+				.zipWith(linkTo(methodOn(OrderController.class).all(null, null, null), exchange).withRel("orders")
+						.toMono()) //
+				.map(links -> new RepresentationModel<>().add(links.getT1()).add(links.getT2()));
+	}
+
+}
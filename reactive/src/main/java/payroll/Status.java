@@ -0,0 +1,8 @@
+package payroll;
+
+enum Status {
+
+	IN_PROGRESS, //
+	COMPLETED, //
+	CANCELLED
+}
@@ -0,0 +1,43 @@
+package payroll;
+
+import static org.hamcrest.Matchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class EmployeeControllerTests {
+
+	@Autowired WebTestClient client;
+
+	@Test
+	void newEmployeeIgnoresClientSuppliedId() {
+
+		client.post().uri("/employees") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.bodyValue("{\"id\":1,\"name\":\"Samwise Gamgee\",\"role\":\"gardener\"}") //
+				.exchange() //
+				.expectStatus().isCreated() //
+				.expectBody().jsonPath("$.name").isEqualTo("Samwise Gamgee");
+
+		client.get().uri("/employees/1") //
+				.exchange() //
+				.expectBody().jsonPath("$.name").isEqualTo("Bilbo Baggins");
+	}
+
+	@Test
+	void replaceMissingEmployeeIgnoresClientSuppliedId() {
+
+		client.put().uri("/employees/{id}", 999998) //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.bodyValue("{\"id\":999998,\"name\":\"Peregrin Took\",\"role\":\"guard\"}") //
+				.exchange() //
+				.expectStatus().isCreated() //
+				.expectBody().jsonPath("$.id").value(not(999998));
+	}
+}
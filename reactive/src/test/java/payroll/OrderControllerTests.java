@@ -0,0 +1,38 @@
+package payroll;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class OrderControllerTests {
+
+	@Autowired WebTestClient client;
+
+	@Test
+	void newOrderIgnoresClientSuppliedId() {
+
+		client.post().uri("/orders") //
+				.contentType(MediaType.APPLICATION_JSON) //
+				.bodyValue("{\"id\":1,\"description\":\"Palantir\"}") //
+				.exchange() //
+				.expectStatus().isCreated() //
+				.expectBody().jsonPath("$.status").isEqualTo("IN_PROGRESS");
+
+		client.get().uri("/orders/1") //
+				.exchange() //
+				.expectBody().jsonPath("$.description").isEqualTo("MacBook Pro");
+	}
+
+	@Test
+	void missingOrderIsNotFound() {
+
+		client.get().uri("/orders/{id}", 999999).exchange().expectStatus().isNotFound();
+		client.delete().uri("/orders/{id}/cancel", 999999).exchange().expectStatus().isNotFound();
+		client.put().uri("/orders/{id}/complete", 999999).exchange().expectStatus().isNotFound();
+	}
+}